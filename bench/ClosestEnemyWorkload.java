@@ -0,0 +1,37 @@
+import benchmarks.Workload;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Finds the enemy closest to the guardian among a fixed set of enemies, rebuilding the
+ * enemy grid first as Level 3 does every frame.
+ */
+public class ClosestEnemyWorkload implements Workload {
+    private static final int CELL_SIZE = 128;
+    private final Guardian guardian = new Guardian();
+    private final ArrayList<Enemy> enemies = new ArrayList<>();
+    private final SpatialGrid grid =
+            new SpatialGrid(ShadowDance.WINDOW_WIDTH, ShadowDance.WINDOW_HEIGHT, CELL_SIZE);
+
+    @Override
+    public void setup(int size) {
+        Random random = new Random();
+        for (int i = 0; i < size; i++) {
+            Enemy enemy = new Enemy();
+            enemy.spawn(random);
+            enemies.add(enemy);
+        }
+    }
+
+    @Override
+    public int run() {
+        grid.clear();
+        for (Enemy enemy : enemies) {
+            grid.add(enemy.getX(), enemy.getY());
+        }
+        grid.build();
+        Enemy closest = guardian.findClosestEnemy(enemies, grid);
+        return closest == null ? 0 : (int) closest.getX();
+    }
+}
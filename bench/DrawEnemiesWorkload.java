@@ -0,0 +1,59 @@
+import bagel.DrawOptions;
+import benchmarks.Workload;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Queues the guardian, a fixed set of enemies and one projectile per ten enemies, interleaved
+ * as a dense frame visits them, and flushes them in batches to a backend that only counts.
+ */
+public class DrawEnemiesWorkload implements Workload {
+    private static final int ENEMIES_PER_PROJECTILE = 10;
+    private final Guardian guardian = new Guardian();
+    private final ArrayList<Enemy> enemies = new ArrayList<>();
+    private final ArrayList<Projectile> projectiles = new ArrayList<>();
+    private final RenderQueue queue = new RenderQueue();
+    private final CountingBackend backend = new CountingBackend();
+
+    @Override
+    public void setup(int size) {
+        Random random = new Random();
+        for (int i = 0; i < size; i++) {
+            Enemy enemy = new Enemy();
+            enemy.spawn(random);
+            enemies.add(enemy);
+            if (i % ENEMIES_PER_PROJECTILE == 0) {
+                Projectile projectile = new Projectile();
+                projectile.fire(guardian.getX(), guardian.getY(), enemy);
+                projectiles.add(projectile);
+            }
+        }
+    }
+
+    @Override
+    public int run() {
+        guardian.draw(1, queue);
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).draw(1, queue);
+            if (i % ENEMIES_PER_PROJECTILE == 0) {
+                projectiles.get(i / ENEMIES_PER_PROJECTILE).draw(1, queue);
+            }
+        }
+        queue.flush(backend);
+        return queue.getBatchCount() + backend.draws;
+    }
+
+    private static class CountingBackend implements RenderBackend {
+        private int draws = 0;
+
+        @Override
+        public void bind(String texture) {
+        }
+
+        @Override
+        public void draw(String sprite, double x, double y, DrawOptions options) {
+            draws++;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import benchmarks.Workload;
+
+import java.util.ArrayList;
+
+/**
+ * Checks one enemy against every lane of a chart that is entirely on screen.
+ * The enemy is kept out of reach of the notes so that the chart is never depleted.
+ */
+public class EnemyCollisionWorkload implements Workload {
+    private static final double ENEMY_X = 500;
+    private static final double ENEMY_Y = 700;
+    private static final int CELL_SIZE = 128;
+    private final SpatialGrid enemies =
+            new SpatialGrid(ShadowDance.WINDOW_WIDTH, ShadowDance.WINDOW_HEIGHT, CELL_SIZE);
+    private ArrayList<Lane> lanes;
+
+    @Override
+    public void setup(int size) {
+        lanes = SyntheticChart.activeLanes(size);
+        enemies.add(ENEMY_X, ENEMY_Y);
+        enemies.build();
+    }
+
+    @Override
+    public int run() {
+        Enemy.stealNotes(lanes, enemies);
+        return lanes.size();
+    }
+}
@@ -0,0 +1,24 @@
+import benchmarks.Workload;
+
+/**
+ * Judges presses at offsets falling in every timing window, plus an unpressed note.
+ */
+public class EvaluateScoreWorkload implements Workload {
+    private static final int[] HEIGHTS = {657, 640, 700, 580, 760, 470, 300};
+    private static final double[] OFFSETS = {0, -142, 358, -642, 858, -1558, -2975};
+    private final Accuracy accuracy = new Accuracy();
+    private int next = 0;
+
+    @Override
+    public void setup(int size) {
+    }
+
+    @Override
+    public int run() {
+        int height = HEIGHTS[next];
+        double offset = OFFSETS[next];
+        next = (next + 1) % HEIGHTS.length;
+        return accuracy.evaluateScore(offset, height, true)
+                + accuracy.evaluateScore(offset, height, false);
+    }
+}
@@ -0,0 +1,33 @@
+import bagel.Keys;
+import benchmarks.Workload;
+
+/**
+ * Judges one hold note that has not been pressed and one that is being held.
+ * Neither note reaches a judgement window, so the state never changes.
+ */
+public class HoldNoteCheckScoreWorkload implements Workload {
+    private static final int TARGET_HEIGHT = 657;
+    private final TickInput input = new TickInput();
+    private final GameClock clock = new GameClock();
+    private final Accuracy accuracy = new Accuracy();
+    private final Lane lane = new NormalLane("Left", 282);
+    private HoldNote waiting;
+    private HoldNote held;
+
+    @Override
+    public void setup(int size) {
+        waiting = new HoldNote("Left", 0);
+        held = new HoldNote("Left", 0);
+        waiting.activate(clock);
+        held.activate(clock);
+        held.startHold();
+        lane.addNote(waiting);
+        lane.addNote(held);
+    }
+
+    @Override
+    public int run() {
+        return waiting.checkScore(input, accuracy, clock, TARGET_HEIGHT, Keys.LEFT, lane)
+                + held.checkScore(input, accuracy, clock, TARGET_HEIGHT, Keys.LEFT, lane);
+    }
+}
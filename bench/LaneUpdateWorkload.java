@@ -0,0 +1,47 @@
+import benchmarks.Workload;
+
+/**
+ * Simulates one frame of a lane holding the whole chart.
+ * The lane is rebuilt before each measurement iteration. Small charts run out many times within
+ * one iteration, so once every note has fallen off the screen the lane is seeked back to the
+ * start, which allocates nothing and touches no notes, rather than rebuilt.
+ */
+public class LaneUpdateWorkload implements Workload {
+    private final TickInput input = new TickInput();
+    private final GameClock clock = new GameClock();
+    private final Accuracy initialAccuracy = new Accuracy();
+    private final Accuracy accuracy = new Accuracy();
+    private int notes;
+    private int lastFrame;
+    private Lane lane;
+
+    @Override
+    public void setup(int size) {
+        notes = size;
+        lastFrame = SyntheticChart.lastFrame(size);
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        lane = SyntheticChart.lane(0, notes);
+        rewind();
+    }
+
+    @Override
+    public int run() {
+        if (clock.getCurrFrame() >= lastFrame) {
+            rewind();
+        }
+        clock.tick();
+        int score = lane.update(input, accuracy, clock);
+        accuracy.update();
+        return score;
+    }
+
+    private void rewind() {
+        clock.seek(0);
+        lane.seek(clock);
+        accuracy.copyFrom(initialAccuracy);
+    }
+}
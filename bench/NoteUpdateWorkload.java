@@ -0,0 +1,28 @@
+import benchmarks.Workload;
+
+import java.util.ArrayList;
+
+/**
+ * Advances a chart that is entirely on screen by one frame and reads every note's position.
+ */
+public class NoteUpdateWorkload implements Workload {
+    private final GameClock clock = new GameClock();
+    private ArrayList<Lane> lanes;
+
+    @Override
+    public void setup(int size) {
+        lanes = SyntheticChart.activeLanes(size, clock);
+    }
+
+    @Override
+    public int run() {
+        clock.tick();
+        int positions = 0;
+        for (Lane lane : lanes) {
+            for (Note note : lane.getNotes()) {
+                positions += note.getY();
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+
+/**
+ * Builds synthetic lanes for the benchmarks, so that charts of any size can be measured
+ * without a CSV file.
+ */
+public class SyntheticChart {
+    /** Directions of the lanes in a synthetic chart. */
+    public static final String[] DIRECTIONS = {"Left", "Up", "Down", "Right"};
+
+    /** Locations of the lanes in a synthetic chart. */
+    public static final int[] LOCATIONS = {282, 432, 592, 742};
+
+    /** Number of frames between consecutive notes in a lane. */
+    public static final int NOTE_SPACING = 20;
+
+    /** Every how many notes a hold note is placed instead of a normal note. */
+    private static final int HOLD_EVERY = 8;
+
+    /** Number of frames a note takes to fall off the screen at the default speed. */
+    public static final int FALL_FRAMES = 400;
+
+    /**
+     * Builds a lane with evenly spaced normal and hold notes.
+     *
+     * @param index the index of the lane's direction and location.
+     * @param notes the number of notes in the lane.
+     * @return the lane.
+     */
+    public static Lane lane(int index, int notes) {
+        String dir = DIRECTIONS[index % DIRECTIONS.length];
+        Lane lane = new NormalLane(dir, LOCATIONS[index % LOCATIONS.length]);
+        for (int i = 0; i < notes; i++) {
+            int frame = 1 + i * NOTE_SPACING;
+            lane.addNote(i % HOLD_EVERY == HOLD_EVERY - 1 ? new HoldNote(dir, frame) : new NormalNote(dir, frame));
+        }
+        return lane;
+    }
+
+    /**
+     * Builds four lanes sharing the given number of notes, with every note already on screen.
+     *
+     * @param notes the total number of notes.
+     * @return the lanes.
+     */
+    public static ArrayList<Lane> activeLanes(int notes) {
+        return activeLanes(notes, new GameClock());
+    }
+
+    /**
+     * Builds four lanes sharing the given number of notes, with every note already on screen and
+     * scrolling with the given clock.
+     *
+     * @param notes the total number of notes.
+     * @param clock the clock the notes scroll with.
+     * @return the lanes.
+     */
+    public static ArrayList<Lane> activeLanes(int notes, GameClock clock) {
+        ArrayList<Lane> lanes = new ArrayList<>();
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            Lane lane = new NormalLane(DIRECTIONS[i], LOCATIONS[i]);
+            for (int j = i; j < notes; j += DIRECTIONS.length) {
+                lane.addNote(new NormalNote(DIRECTIONS[i], 0));
+            }
+            // Bring every note into the live window without moving it
+            lane.update(new TickInput(), new Accuracy(), clock);
+            lanes.add(lane);
+        }
+        return lanes;
+    }
+
+    /**
+     * Computes the frame after which every note of a synthetic lane has left the screen.
+     *
+     * @param notes the number of notes in the lane.
+     * @return the last frame of the lane.
+     */
+    public static int lastFrame(int notes) {
+        return 1 + notes * NOTE_SPACING + FALL_FRAMES;
+    }
+}
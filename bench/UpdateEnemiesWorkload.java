@@ -0,0 +1,46 @@
+import bagel.Keys;
+import benchmarks.Workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Updates Level 3's enemies and projectiles for one frame.
+ * The guardian fires every few frames, and enemies that are shot are respawned so that
+ * the enemy count stays constant.
+ */
+public class UpdateEnemiesWorkload implements Workload {
+    private static final int FIRE_RATE = 10;
+    private final TickInput input = new TickInput();
+    private Level3 level;
+    private int enemies;
+    private int frame = 0;
+
+    @Override
+    public void setup(int size) {
+        enemies = size;
+        try {
+            level = new Level3();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        topUp();
+    }
+
+    @Override
+    public int run() {
+        input.clear();
+        if (++frame % FIRE_RATE == 0) {
+            input.press(Keys.LEFT_SHIFT, GameClock.timeOf(frame));
+        }
+        level.updateEnemies(input);
+        topUp();
+        return level.getEnemyCount();
+    }
+
+    private void topUp() {
+        while (level.getEnemyCount() < enemies) {
+            level.spawnEnemy();
+        }
+    }
+}
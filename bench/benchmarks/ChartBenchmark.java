@@ -0,0 +1,66 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-frame cost of lanes and notes as the chart grows.
+ * Each operation is one simulated frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChartBenchmark {
+    /** Number of notes in the chart. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int notes;
+
+    private Workload laneUpdate;
+    private Workload noteUpdate;
+    private Workload enemyCollision;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        laneUpdate = Workloads.create("LaneUpdateWorkload", notes);
+        noteUpdate = Workloads.create("NoteUpdateWorkload", notes);
+        enemyCollision = Workloads.create("EnemyCollisionWorkload", notes);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        laneUpdate.reset();
+    }
+
+    /** {@code Lane.update} on a lane holding the whole chart. */
+    @Benchmark
+    public int laneUpdate() {
+        return laneUpdate.run();
+    }
+
+    /** {@code Note.getY} on every note of a chart that is entirely on screen. */
+    @Benchmark
+    public int noteUpdate() {
+        return noteUpdate.run();
+    }
+
+    /** {@code Enemy.stealNotes} for one enemy against every lane of the chart. */
+    @Benchmark
+    public int enemyStealNotes() {
+        return enemyCollision.run();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-frame cost of Level 3's enemies as their number grows.
+ * Each operation is one simulated frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemyBenchmark {
+    /** Number of enemies alive. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int enemies;
+
+    private Workload closestEnemy;
+    private Workload updateEnemies;
+    private Workload drawEnemies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        closestEnemy = Workloads.create("ClosestEnemyWorkload", enemies);
+        updateEnemies = Workloads.create("UpdateEnemiesWorkload", enemies);
+        drawEnemies = Workloads.create("DrawEnemiesWorkload", enemies);
+    }
+
+    /** {@code Guardian.findClosestEnemy}, including rebuilding the enemy grid. */
+    @Benchmark
+    public int guardianFindClosestEnemy() {
+        return closestEnemy.run();
+    }
+
+    /** {@code Level3.updateEnemies}, firing every few frames and respawning enemies that are shot. */
+    @Benchmark
+    public int level3UpdateEnemies() {
+        return updateEnemies.run();
+    }
+
+    /** {@code RenderQueue} draws of the guardian, enemies and projectiles, sorted and batched by texture. */
+    @Benchmark
+    public int renderQueueDrawEnemies() {
+        return drawEnemies.run();
+    }
+}
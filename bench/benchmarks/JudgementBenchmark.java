@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of judging a single note, which does not depend on chart size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JudgementBenchmark {
+    private Workload holdNoteCheckScore;
+    private Workload evaluateScore;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        holdNoteCheckScore = Workloads.create("HoldNoteCheckScoreWorkload", 1);
+        evaluateScore = Workloads.create("EvaluateScoreWorkload", 1);
+    }
+
+    /** {@code HoldNote.checkScore} before and during a hold. */
+    @Benchmark
+    public int holdNoteCheckScore() {
+        return holdNoteCheckScore.run();
+    }
+
+    /** {@code Accuracy.evaluateScore} across every judgement window. */
+    @Benchmark
+    public int accuracyEvaluateScore() {
+        return evaluateScore.run();
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+/**
+ * A unit of game logic measured by a benchmark.
+ * The game's classes live in the default package, which JMH cannot generate code for and which
+ * named packages cannot import, so each workload is implemented in the default package and
+ * driven through this interface.
+ */
+public interface Workload {
+    /**
+     * Builds the state measured by the workload.
+     *
+     * @param size the number of notes or enemies to build.
+     */
+    void setup(int size);
+
+    /**
+     * Puts the workload back to its starting state before a measurement iteration, outside the
+     * measured operations. Workloads whose state never runs out do nothing.
+     */
+    default void reset() {
+    }
+
+    /**
+     * Simulates one frame of the workload.
+     *
+     * @return a value derived from the frame, to be consumed by the benchmark.
+     */
+    int run();
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+/**
+ * Creates workloads implemented in the default package.
+ */
+public final class Workloads {
+    private Workloads() {
+    }
+
+    /**
+     * Creates and sets up the workload with the given class name.
+     *
+     * @param className the name of the workload class in the default package.
+     * @param size      the number of notes or enemies to build.
+     * @return the workload, ready to run.
+     */
+    public static Workload create(String className, int size) {
+        try {
+            Workload workload = (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+            workload.setup(size);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create workload " + className, e);
+        }
+    }
+}
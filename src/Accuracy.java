@@ -1,9 +1,11 @@
-import bagel.Font;
 import bagel.Window;
 
 /**
  * Represents the accuracy of pressing notes in a rhythm game.
- * The accuracy is determined based on how close the note press is to the intended target.
+ * The accuracy is determined based on how close in time the note press is to the moment the
+ * note reaches its target, so the timing windows are the same whatever the scroll speed.
+ * At the starting speed they match the pixel distances of 15, 50, 100 and 200 that hits
+ * were once judged by.
  */
 public class Accuracy {
     /** Score for a perfect note hit. */
@@ -39,23 +41,26 @@ public class Accuracy {
     /** String representation for a missed note. */
     public static final String MISS = "MISS";
 
-    /** Pixel radius for determining a perfect note hit. */
-    private static final int PERFECT_RADIUS = 15;
+    /** Timing window for determining a perfect note hit, in milliseconds. */
+    private static final double PERFECT_WINDOW = 125;
 
-    /** Pixel radius for determining a good note hit. */
-    private static final int GOOD_RADIUS = 50;
+    /** Timing window for determining a good note hit, in milliseconds. */
+    private static final double GOOD_WINDOW = 417;
 
-    /** Pixel radius for determining a bad note hit. */
-    private static final int BAD_RADIUS = 100;
+    /** Timing window for determining a bad note hit, in milliseconds. */
+    private static final double BAD_WINDOW = 834;
 
-    /** Pixel radius for determining a missed note. */
-    private static final int MISS_RADIUS = 200;
+    /** Timing window for determining a missed note, in milliseconds. */
+    private static final double MISS_WINDOW = 1667;
 
-    /** Pixel radius for determining the activation of an effect. */
-    private static final int EFFECT_RADIUS = 50;
+    /** Timing window for determining the activation of an effect, in milliseconds. */
+    private static final double EFFECT_WINDOW = 417;
 
-    /** Font used for rendering the accuracy display. */
-    private static final Font ACCURACY_FONT = new Font(ShadowDance.FONT_FILE, 40);
+    /** Size of the font used for rendering the accuracy display. */
+    public static final int ACCURACY_SIZE = 40;
+
+    /** Label showing the current accuracy, measured again only when the accuracy changes. */
+    private final HudLabel accuracyLabel = new HudLabel(ShadowDance.FONT_FILE, ACCURACY_SIZE);
 
     /** Number of frames to render the accuracy display. */
     private static final int RENDER_FRAMES = 30;
@@ -75,6 +80,9 @@ public class Accuracy {
     /** Indicates if the double score effect is active. */
     private boolean doubleScore = false;
 
+    /** Number of key presses and releases judged so far. */
+    private int judgementCount = 0;
+
     /**
      * Sets the current accuracy.
      *
@@ -93,55 +101,61 @@ public class Accuracy {
     }
 
     /**
-     * Evaluates the effect based on height, target height, and other conditions.
+     * Evaluates the effect based on the timing of the press and other conditions.
      *
-     * @param height       current height of the note
-     * @param targetHeight target height for the note
-     * @param triggered    indicates whether the note was triggered (pressed) or not
-     * @param message      the accuracy message to be displayed
+     * @param offset    milliseconds from the note's ideal hit time to the press, negative if early
+     * @param height    current height of the note
+     * @param triggered indicates whether the note was triggered (pressed) or not
+     * @param message   the accuracy message to be displayed
      * @return an integer representing the result (e.g., EFFECT_ACTIVATED, NOT_SCORED, etc.)
      */
-    public int evaluateEffect(int height, int targetHeight, boolean triggered, String message) {
-        int distance = Math.abs(height - targetHeight);
+    public int evaluateEffect(double offset, int height, boolean triggered, String message) {
+        double distance = Math.abs(offset);
         if (triggered) {
-            if (distance <= EFFECT_RADIUS) {
+            if (distance <= EFFECT_WINDOW) {
+                judgementCount++;
                 setAccuracy(message);
                 effectCount = 0;
                 return EFFECT_ACTIVATED;
             }
-        } else if (height >= (Window.getHeight())) {
+        } else if (height >= ShadowDance.WINDOW_HEIGHT) {
             return EFFECT_NOT_ACTIVATED;
         }
         return NOT_SCORED;
     }
 
     /**
-     * Evaluates the score based on height, target height, and other conditions.
+     * Evaluates the score based on the timing of the press and other conditions.
+     * Notes that are never pressed are missed once they leave the screen.
      *
-     * @param height       current height of the note
-     * @param targetHeight target height for the note
-     * @param triggered    indicates whether the note was triggered (pressed) or not
+     * @param offset    milliseconds from the note's ideal hit time to the press, negative if early
+     * @param height    current height of the note
+     * @param triggered indicates whether the note was triggered (pressed) or not
      * @return the score based on the evaluation
      */
-    public int evaluateScore(int height, int targetHeight, boolean triggered) {
-        int distance = Math.abs(height - targetHeight);
+    public int evaluateScore(double offset, int height, boolean triggered) {
+        double distance = Math.abs(offset);
+
+        if (triggered && distance <= MISS_WINDOW) {
+            judgementCount++;
+        }
 
         if (triggered) {
-            if (distance <= PERFECT_RADIUS) {
+            if (distance <= PERFECT_WINDOW) {
                 setAccuracy(PERFECT);
                 return PERFECT_SCORE * doubleEffect;
-            } else if (distance <= GOOD_RADIUS) {
+            } else if (distance <= GOOD_WINDOW) {
                 setAccuracy(GOOD);
                 return GOOD_SCORE * doubleEffect;
-            } else if (distance <= BAD_RADIUS) {
+            } else if (distance <= BAD_WINDOW) {
                 setAccuracy(BAD);
                 return BAD_SCORE * doubleEffect;
-            } else if (distance <= MISS_RADIUS) {
+            } else if (distance <= MISS_WINDOW) {
                 setAccuracy(MISS);
                 return MISS_SCORE * doubleEffect;
             }
 
-        } else if (height >= (Window.getHeight())) {
+        } else if (height >= ShadowDance.WINDOW_HEIGHT) {
             setAccuracy(MISS);
             return MISS_SCORE * doubleEffect;
         }
@@ -150,6 +164,16 @@ public class Accuracy {
 
     }
 
+    /**
+     * Retrieves how many key presses and releases have been judged, so that the time taken to
+     * judge them can be measured.
+     *
+     * @return the number of judgements of key events so far.
+     */
+    public int getJudgementCount() {
+        return judgementCount;
+    }
+
     /**
      * Setter method for the current accuracy.
      *
@@ -160,15 +184,25 @@ public class Accuracy {
     }
 
     /**
-     * Updates the accuracy display and related effects.
+     * Makes this tracker show the same accuracy and apply the same score effect as another,
+     * for saving or restoring a level's state.
+     *
+     * @param other the tracker to copy.
+     */
+    public void copyFrom(Accuracy other) {
+        currAccuracy = other.currAccuracy;
+        frameCount = other.frameCount;
+        doubleEffect = other.doubleEffect;
+        effectCount = other.effectCount;
+        doubleScore = other.doubleScore;
+        judgementCount = other.judgementCount;
+    }
+
+    /**
+     * Updates the accuracy display timer and related effects.
      */
     public void update() {
         frameCount++;
-        if (currAccuracy != null && frameCount < RENDER_FRAMES) {
-            ACCURACY_FONT.drawString(currAccuracy,
-                    (double) Window.getWidth() /2 - ACCURACY_FONT.getWidth(currAccuracy)/2,
-                    (double) Window.getHeight() /2);
-        }
 
         if (effectCount > 0 && doubleScore) {
             effectCount--;
@@ -176,4 +210,14 @@ public class Accuracy {
             doubleEffect = 1;
         }
     }
+
+    /**
+     * Draws the current accuracy if it was set recently enough to still be shown.
+     */
+    public void draw() {
+        if (currAccuracy != null && frameCount < RENDER_FRAMES) {
+            accuracyLabel.setText(currAccuracy);
+            accuracyLabel.drawCentred((double) Window.getWidth() /2, (double) Window.getHeight() /2);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+import bagel.Font;
+import bagel.Image;
+
+import java.util.HashMap;
+
+/**
+ * Shared registry of images and fonts, so that each texture and each font and size is loaded
+ * only once, however many notes, lanes and entities use it.
+ * Levels acquire their assets before play, which loads them up front, and release them when
+ * they end; an asset is dropped from the registry once no level holds a reference to it.
+ * Assets that are used without being acquired are loaded on first use and kept.
+ */
+public final class Assets {
+    /** Loaded images, keyed by file path. */
+    private static final HashMap<String, Entry<Image>> IMAGES = new HashMap<>();
+
+    /** Loaded fonts, keyed by file path and size. */
+    private static final HashMap<String, Entry<Font>> FONTS = new HashMap<>();
+
+    /**
+     * A loaded asset and the number of references held to it.
+     *
+     * @param <T> the type of the asset.
+     */
+    private static final class Entry<T> {
+        /** The loaded asset. */
+        private final T asset;
+
+        /** Number of times the asset has been acquired and not yet released. */
+        private int references = 0;
+
+        /**
+         * Constructs an entry for a newly loaded asset.
+         *
+         * @param asset the loaded asset.
+         */
+        private Entry(T asset) {
+            this.asset = asset;
+        }
+    }
+
+    private Assets() {
+    }
+
+    /**
+     * Retrieves the image at the given path, loading it if it is not yet registered.
+     *
+     * @param path the path to the image file.
+     * @return the shared image.
+     */
+    public static Image getImage(String path) {
+        return imageEntry(path).asset;
+    }
+
+    /**
+     * Retrieves the font with the given file and size, loading it if it is not yet registered.
+     *
+     * @param file the path to the font file.
+     * @param size the size of the font.
+     * @return the shared font.
+     */
+    public static Font getFont(String file, int size) {
+        return fontEntry(file, size).asset;
+    }
+
+    /**
+     * Loads the image at the given path if needed and holds a reference to it.
+     *
+     * @param path the path to the image file.
+     */
+    public static void acquireImage(String path) {
+        imageEntry(path).references++;
+    }
+
+    /**
+     * Releases a reference to the image at the given path, dropping the image once no
+     * references remain.
+     *
+     * @param path the path to the image file.
+     */
+    public static void releaseImage(String path) {
+        release(IMAGES, path);
+    }
+
+    /**
+     * Loads the font with the given file and size if needed and holds a reference to it.
+     *
+     * @param file the path to the font file.
+     * @param size the size of the font.
+     */
+    public static void acquireFont(String file, int size) {
+        fontEntry(file, size).references++;
+    }
+
+    /**
+     * Releases a reference to the font with the given file and size, dropping the font once no
+     * references remain.
+     *
+     * @param file the path to the font file.
+     * @param size the size of the font.
+     */
+    public static void releaseFont(String file, int size) {
+        release(FONTS, fontKey(file, size));
+    }
+
+    /**
+     * Retrieves the registry entry for an image, loading the image if needed.
+     *
+     * @param path the path to the image file.
+     * @return the image's entry.
+     */
+    private static Entry<Image> imageEntry(String path) {
+        Entry<Image> entry = IMAGES.get(path);
+        if (entry == null) {
+            entry = new Entry<>(new Image(path));
+            IMAGES.put(path, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Retrieves the registry entry for a font, loading the font if needed.
+     *
+     * @param file the path to the font file.
+     * @param size the size of the font.
+     * @return the font's entry.
+     */
+    private static Entry<Font> fontEntry(String file, int size) {
+        String key = fontKey(file, size);
+        Entry<Font> entry = FONTS.get(key);
+        if (entry == null) {
+            entry = new Entry<>(new Font(file, size));
+            FONTS.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Builds the registry key of a font.
+     *
+     * @param file the path to the font file.
+     * @param size the size of the font.
+     * @return the font's key.
+     */
+    private static String fontKey(String file, int size) {
+        return file + "@" + size;
+    }
+
+    /**
+     * Releases a reference to an asset, dropping it once no references remain.
+     *
+     * @param registry the registry holding the asset.
+     * @param key      the asset's key.
+     * @param <T>      the type of the asset.
+     */
+    private static <T> void release(HashMap<String, Entry<T>> registry, String key) {
+        Entry<T> entry = registry.get(key);
+        if (entry != null && --entry.references <= 0) {
+            registry.remove(key);
+        }
+    }
+}
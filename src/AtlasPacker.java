@@ -0,0 +1,217 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Packs sprite images into the atlas pages and index read by {@link TextureAtlas}.
+ * Sprites are sorted by height and placed left to right on shelves, starting a new shelf when a
+ * row is full and a new page when a page is full, with padding between them so that filtering
+ * never blends one sprite into its neighbour. Images too large to share a page, such as the
+ * background, are left out and keep being drawn from their own file.
+ * Run with the sprite images, or directories of them, to write {@link TextureAtlas#INDEX_FILE}
+ * and its pages. Repack whenever a sprite changes; until then a sprite whose file has changed
+ * is drawn from its own image.
+ */
+public class AtlasPacker {
+    /** Width and greatest height of an atlas page, in pixels. */
+    public static final int PAGE_SIZE = 1024;
+
+    /** Largest width or height of a sprite that is packed, in pixels. */
+    public static final int MAX_SPRITE_SIZE = PAGE_SIZE * 3 / 4;
+
+    /** Empty pixels left around each sprite. */
+    public static final int PADDING = 2;
+
+    /** Path, image and placement of each sprite packed. */
+    private final ArrayList<Sprite> sprites = new ArrayList<>();
+
+    /** Height of each page used, in pixels. */
+    private final ArrayList<Integer> pageHeights = new ArrayList<>();
+
+    /**
+     * A sprite image and where it was placed.
+     */
+    private static final class Sprite {
+        /** Path to the sprite's image file. */
+        private final String path;
+
+        /** The sprite's image. */
+        private final BufferedImage image;
+
+        /** Size of the sprite's image file, in bytes. */
+        private final long fileSize;
+
+        /** Modification time of the sprite's image file, in milliseconds since the epoch. */
+        private final long modified;
+
+        /** CRC-32 of the sprite's image file. */
+        private final long checksum;
+
+        /** Number of the page the sprite was placed on. */
+        private int page;
+
+        /** X-coordinate of the sprite's left edge on its page. */
+        private int x;
+
+        /** Y-coordinate of the sprite's top edge on its page. */
+        private int y;
+
+        /**
+         * Constructs an unplaced sprite.
+         *
+         * @param path     the path to the sprite's image file.
+         * @param image    the sprite's image.
+         * @param fileSize the size of the sprite's image file, in bytes.
+         * @param modified the modification time of the sprite's image file.
+         * @param checksum the CRC-32 of the sprite's image file.
+         */
+        private Sprite(String path, BufferedImage image, long fileSize, long modified, long checksum) {
+            this.path = path;
+            this.image = image;
+            this.fileSize = fileSize;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Packs the sprite images given on the command line, and those in any directories given.
+     *
+     * @param args the paths to the sprite images or directories of them.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: AtlasPacker <image or directory>...");
+            System.exit(1);
+        }
+        try {
+            AtlasPacker packer = new AtlasPacker();
+            for (String arg : args) {
+                File file = new File(arg);
+                if (file.isDirectory()) {
+                    File[] children = file.listFiles();
+                    if (children == null) {
+                        throw new IOException("Cannot list " + arg);
+                    }
+                    Arrays.sort(children);
+                    for (File child : children) {
+                        if (isImage(child)) {
+                            packer.add(arg + "/" + child.getName());
+                        }
+                    }
+                } else {
+                    packer.add(arg);
+                }
+            }
+            packer.pack();
+            packer.write();
+        } catch (IOException e) {
+            System.err.println("Cannot pack atlas: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks whether a file is a PNG image that is not itself an atlas page.
+     *
+     * @param file the file to check.
+     * @return true if the file should be packed, false otherwise.
+     */
+    private static boolean isImage(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        String prefix = new File(TextureAtlas.PAGE_PREFIX).getName();
+        return file.isFile() && name.endsWith(".png") && !name.matches(prefix + "\\d+\\.png");
+    }
+
+    /**
+     * Reads a sprite image to be packed, leaving it out if it is too large.
+     *
+     * @param path the path to the sprite's image file.
+     * @throws IOException if the image cannot be read.
+     */
+    public void add(String path) throws IOException {
+        File file = new File(path);
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException(path + ": not a readable image");
+        }
+        if (image.getWidth() > MAX_SPRITE_SIZE || image.getHeight() > MAX_SPRITE_SIZE) {
+            System.out.println(path + " left out (" + image.getWidth() + "x" + image.getHeight() + ")");
+            return;
+        }
+        sprites.add(new Sprite(path, image, file.length(), file.lastModified(),
+                TextureAtlas.checksum(file)));
+    }
+
+    /**
+     * Places every sprite on shelves, tallest first, opening pages as needed.
+     */
+    public void pack() {
+        sprites.sort(Comparator.comparingInt((Sprite sprite) -> -sprite.image.getHeight())
+                .thenComparing(sprite -> sprite.path));
+        pageHeights.clear();
+        int page = 0;
+        int x = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (Sprite sprite : sprites) {
+            int width = sprite.image.getWidth() + PADDING;
+            int height = sprite.image.getHeight() + PADDING;
+            if (x + width > PAGE_SIZE) {
+                shelfY += shelfHeight;
+                x = 0;
+                shelfHeight = 0;
+            }
+            if (shelfY + height > PAGE_SIZE) {
+                pageHeights.add(shelfY);
+                page++;
+                shelfY = 0;
+                x = 0;
+                shelfHeight = 0;
+            }
+            sprite.page = page;
+            sprite.x = x;
+            sprite.y = shelfY;
+            x += width;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+        pageHeights.add(shelfY + shelfHeight);
+    }
+
+    /**
+     * Writes the packed pages and the index.
+     *
+     * @throws IOException if a page or the index cannot be written.
+     */
+    public void write() throws IOException {
+        for (int page = 0; page < pageHeights.size(); page++) {
+            BufferedImage image = new BufferedImage(PAGE_SIZE, Math.max(pageHeights.get(page), 1),
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = image.createGraphics();
+            for (Sprite sprite : sprites) {
+                if (sprite.page == page) {
+                    graphics.drawImage(sprite.image, sprite.x, sprite.y, null);
+                }
+            }
+            graphics.dispose();
+            String path = TextureAtlas.pagePath(page);
+            ImageIO.write(image, "png", new File(path));
+            System.out.println(path + " (" + image.getWidth() + "x" + image.getHeight() + ")");
+        }
+        try (PrintWriter out = new PrintWriter(TextureAtlas.INDEX_FILE)) {
+            for (Sprite sprite : sprites) {
+                out.println(sprite.path + "," + sprite.page + "," + sprite.x + "," + sprite.y + ","
+                        + sprite.image.getWidth() + "," + sprite.image.getHeight() + "," + sprite.fileSize + "," + sprite.modified + ","
+                        + sprite.checksum);
+            }
+        }
+        System.out.println(TextureAtlas.INDEX_FILE + " (" + sprites.size() + " sprites)");
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * A fixed-size ring of audio bytes passed from a thread decoding a track to the audio service
+ * playing it. The writer blocks while the ring is full, so the memory used is the same however
+ * long the track is, but the reader never blocks, so the audio service stays responsive.
+ * Writers and readers should keep to whole audio frames so that reads never split a frame.
+ */
+public class AudioRingBuffer {
+    /** Bytes in the ring. */
+    private final byte[] data;
+
+    /** Index of the next byte to read. */
+    private int readPosition = 0;
+
+    /** Number of bytes written but not yet read. */
+    private int size = 0;
+
+    /** Whether the writer has reached the end of the track. */
+    private boolean finished = false;
+
+    /** Whether the ring has been closed, discarding its bytes. */
+    private boolean closed = false;
+
+    /**
+     * Constructs an empty ring holding up to the given number of bytes.
+     *
+     * @param capacity the number of bytes the ring holds.
+     */
+    public AudioRingBuffer(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Writes bytes to the ring, waiting for room as needed.
+     *
+     * @param source the array holding the bytes.
+     * @param offset the index of the first byte to write.
+     * @param length the number of bytes to write.
+     * @throws InterruptedException if interrupted while waiting for room.
+     */
+    public synchronized void write(byte[] source, int offset, int length) throws InterruptedException {
+        while (length > 0) {
+            while (size == data.length && !closed) {
+                wait();
+            }
+            if (closed) {
+                return;
+            }
+            int writePosition = (readPosition + size) % data.length;
+            int count = Math.min(length, Math.min(data.length - size, data.length - writePosition));
+            System.arraycopy(source, offset, data, writePosition, count);
+            size += count;
+            offset += count;
+            length -= count;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reads whatever bytes are available from the ring, without waiting.
+     *
+     * @param target the array to read the bytes into.
+     * @param offset the index to read the first byte into.
+     * @param length the greatest number of bytes to read.
+     * @return the number of bytes read, which is 0 if none are available yet, or -1 at the end
+     *         of the track or once closed.
+     */
+    public synchronized int read(byte[] target, int offset, int length) {
+        if (closed || (size == 0 && finished)) {
+            return -1;
+        }
+        if (size == 0) {
+            return 0;
+        }
+        int count = Math.min(length, Math.min(size, data.length - readPosition));
+        System.arraycopy(data, readPosition, target, offset, count);
+        readPosition = (readPosition + count) % data.length;
+        size -= count;
+        notifyAll();
+        return count;
+    }
+
+    /**
+     * Marks the end of the track. Bytes already written can still be read.
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Discards the ring's bytes and releases any waiting reader or writer.
+     */
+    public synchronized void close() {
+        closed = true;
+        size = 0;
+        notifyAll();
+    }
+}
@@ -0,0 +1,244 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays music on a single long-lived audio thread, so that the game loop never waits on audio.
+ * The game loop posts play, pause, resume, seek and stop commands to a lock-free queue and
+ * returns at once; the audio thread carries them out, keeps the playing track's line fed, and
+ * posts the track's playback position back each time it moves. Only the latest position is
+ * kept, so positions never pile up while the game loop is not taking them.
+ */
+public class AudioService implements Runnable {
+    /** Time the audio thread sleeps when there is nothing to do, in nanoseconds. */
+    private static final long IDLE_NANOS = 2_000_000L;
+
+    /** Kinds of command the audio thread carries out. */
+    private enum CommandType { PLAY, PAUSE, RESUME, SEEK, STOP, SHUTDOWN }
+
+    /**
+     * A command posted by the game loop to the audio thread.
+     */
+    private static class Command {
+        /** Kind of command. */
+        private final CommandType type;
+
+        /** Identifier of the track to play, for play commands. */
+        private final int trackId;
+
+        /** Audio file to play, for play commands. */
+        private final String file;
+
+        /** Position to seek to in microseconds, for seek commands. */
+        private final long position;
+
+        /**
+         * Constructs a new command.
+         *
+         * @param type     the kind of command.
+         * @param trackId  the identifier of the track to play, for play commands.
+         * @param file     the audio file to play, for play commands.
+         * @param position the position to seek to in microseconds, for seek commands.
+         */
+        private Command(CommandType type, int trackId, String file, long position) {
+            this.type = type;
+            this.trackId = trackId;
+            this.file = file;
+            this.position = position;
+        }
+    }
+
+    /** Commands posted by the game loop and not yet carried out. */
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+
+    /** Latest playback position posted by the audio thread and not yet taken by the game loop. */
+    private final AtomicReference<PlaybackPosition> latestPosition = new AtomicReference<>();
+
+    /** The audio thread. */
+    private final Thread thread = new Thread(this, "Audio service");
+
+    /** Identifier given to the last track played. Only used by the game loop. */
+    private int lastTrackId = 0;
+
+    /** Track being played by the audio thread, or null if there is none. */
+    private Track track;
+
+    /** Identifier of the track being played by the audio thread. */
+    private int trackId;
+
+    /** Last playback position posted by the audio thread, in microseconds. */
+    private long lastPosition = -1;
+
+    /**
+     * Constructs a new audio service and starts its thread.
+     */
+    public AudioService() {
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops any track being played and starts playing the given audio file from the start.
+     *
+     * @param file the audio file to play.
+     * @return an identifier for the track, carried by the playback positions it posts.
+     */
+    public int play(String file) {
+        lastTrackId++;
+        post(new Command(CommandType.PLAY, lastTrackId, file, 0));
+        return lastTrackId;
+    }
+
+    /**
+     * Pauses the track being played.
+     */
+    public void pause() {
+        post(new Command(CommandType.PAUSE, 0, null, 0));
+    }
+
+    /**
+     * Resumes the track being played after a pause.
+     */
+    public void resume() {
+        post(new Command(CommandType.RESUME, 0, null, 0));
+    }
+
+    /**
+     * Moves the track being played to the given position.
+     * The track is given a new identifier, so that positions posted from before the seek can be
+     * told apart from those after it.
+     *
+     * @param position the position to play from, in microseconds.
+     * @return the new identifier of the track, carried by the playback positions it posts.
+     */
+    public int seek(long position) {
+        lastTrackId++;
+        post(new Command(CommandType.SEEK, lastTrackId, null, position));
+        return lastTrackId;
+    }
+
+    /**
+     * Stops the track being played for good.
+     */
+    public void stop() {
+        post(new Command(CommandType.STOP, 0, null, 0));
+    }
+
+    /**
+     * Stops any track being played and ends the audio thread.
+     */
+    public void shutdown() {
+        post(new Command(CommandType.SHUTDOWN, 0, null, 0));
+    }
+
+    /**
+     * Takes the latest playback position posted by the audio thread since the last call.
+     *
+     * @return the playback position, or null if none has been posted.
+     */
+    public PlaybackPosition pollPosition() {
+        return latestPosition.getAndSet(null);
+    }
+
+    /**
+     * Adds a command to the queue and wakes the audio thread to carry it out.
+     *
+     * @param command the command to post.
+     */
+    private void post(Command command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Carries out commands, feeds the track being played and posts its playback position
+     * until shut down. Runs on the audio thread.
+     */
+    @Override
+    public void run() {
+        while (true) {
+            Command command;
+            while ((command = commands.poll()) != null) {
+                if (command.type == CommandType.SHUTDOWN) {
+                    closeTrack();
+                    return;
+                }
+                carryOut(command);
+            }
+
+            boolean busy = false;
+            if (track != null) {
+                busy = track.pump();
+                postPosition();
+            }
+            if (!busy) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Carries out a command on the audio thread.
+     *
+     * @param command the command to carry out.
+     */
+    private void carryOut(Command command) {
+        switch (command.type) {
+            case PLAY:
+                closeTrack();
+                try {
+                    track = new Track(command.file);
+                    trackId = command.trackId;
+                    track.play();
+                } catch (Exception ex) {
+                    // Play on without music; the song clock falls back to the system timer
+                    System.err.println("Cannot play track: " + ex.getMessage());
+                }
+                break;
+            case PAUSE:
+                if (track != null) {
+                    track.pause();
+                }
+                break;
+            case RESUME:
+                if (track != null) {
+                    track.play();
+                }
+                break;
+            case SEEK:
+                if (track != null) {
+                    track.seek(command.position);
+                    trackId = command.trackId;
+                    lastPosition = -1;
+                }
+                break;
+            case STOP:
+                closeTrack();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Posts the playback position of the track being played if it has moved.
+     */
+    private void postPosition() {
+        long position = track.getMicrosecondPosition();
+        if (position >= 0 && position != lastPosition) {
+            latestPosition.set(new PlaybackPosition(trackId, position, System.nanoTime()));
+        }
+        lastPosition = position;
+    }
+
+    /**
+     * Closes the track being played, if any.
+     */
+    private void closeTrack() {
+        if (track != null) {
+            track.close();
+            track = null;
+        }
+        lastPosition = -1;
+    }
+}
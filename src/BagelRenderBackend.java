@@ -0,0 +1,67 @@
+import bagel.DrawOptions;
+import bagel.Image;
+
+/**
+ * Draws the batches of a {@link RenderQueue} to the window through bagel.
+ * Each texture is looked up once per batch rather than once per draw, and sprites packed into a
+ * {@link TextureAtlas} page are drawn as sections of the page.
+ */
+public class BagelRenderBackend implements RenderBackend {
+    /** Atlas of the sprites drawn as sections of a page. */
+    private final TextureAtlas atlas;
+
+    /** Image of the texture being drawn, or null before the first batch. */
+    private Image image = null;
+
+    /**
+     * Constructs a backend drawing every sprite from its own image.
+     */
+    public BagelRenderBackend() {
+        this(new TextureAtlas());
+    }
+
+    /**
+     * Constructs a backend drawing packed sprites from the pages of the given atlas.
+     *
+     * @param atlas the atlas the render queue was given.
+     */
+    public BagelRenderBackend(TextureAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    /**
+     * Looks up the image of the texture to be drawn next.
+     *
+     * @param texture the path to the texture's image file.
+     */
+    @Override
+    public void bind(String texture) {
+        image = Assets.getImage(texture);
+    }
+
+    /**
+     * Draws a sprite from the image of the current batch, as a section of it if the sprite is
+     * packed into an atlas page.
+     *
+     * @param sprite  the path to the sprite's image file.
+     * @param x       the x-coordinate to draw at.
+     * @param y       the y-coordinate to draw at.
+     * @param options the options to draw with, or null to draw the sprite as it is.
+     */
+    @Override
+    public void draw(String sprite, double x, double y, DrawOptions options) {
+        TextureAtlas.Region region = atlas.getRegion(sprite);
+        if (region != null) {
+            if (options == null) {
+                options = region.getOptions();
+            } else {
+                region.applyTo(options);
+            }
+        }
+        if (options == null) {
+            image.draw(x, y);
+        } else {
+            image.draw(x, y, options);
+        }
+    }
+}
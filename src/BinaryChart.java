@@ -0,0 +1,313 @@
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a compiled binary chart, as written by {@link ChartCompiler}, by memory-mapping the file.
+ * All values are big-endian. The file is laid out as:
+ * <ul>
+ *     <li>a header holding the magic number, format version, lane, name and note counts, the
+ *     length of the name and lane tables, a CRC-32 checksum of the tables and of the notes, and
+ *     the CRC-32 checksum, length and modification time of the CSV chart it was compiled
+ *     from;</li>
+ *     <li>a name table of every lane and note type, each a length-prefixed UTF-8 string;</li>
+ *     <li>a lane table giving each lane's type, location and range of notes;</li>
+ *     <li>the note records, each an appearance frame and note type, grouped by lane and sorted
+ *     by appearance frame within each lane.</li>
+ * </ul>
+ * Lanes and notes are passed to the handler straight from the mapped buffer, so loading does no
+ * text parsing and each lane receives its notes already in order. Problems are reported at the
+ * number of the lane or note record, counting lanes first and starting from 1.
+ * Whether the binary chart is still up to date is decided from the CSV chart's length and
+ * modification time, so that loading never reads the CSV chart while it is unchanged. Those are
+ * not kept reliably by checkouts, copies and archives, so when they differ the CSV chart's
+ * checksum decides instead.
+ */
+public class BinaryChart implements ChartSource {
+    /** Extension of compiled binary chart files. */
+    public static final String EXTENSION = ".chart";
+
+    /** Extension of CSV chart files. */
+    private static final String CSV_EXTENSION = ".csv";
+
+    /** Magic number at the start of every binary chart, "SDCH" in ASCII. */
+    public static final int MAGIC = 0x53444348;
+
+    /** Version of the binary chart format. */
+    public static final short VERSION = 3;
+
+    /** Number of bytes in the header. */
+    public static final int HEADER_SIZE = 48;
+
+    /** Position in the header of the checksum, length and modification time of the CSV chart. */
+    private static final int SOURCE_OFFSET = 28;
+
+    /** Number of bytes in each lane table entry. */
+    public static final int LANE_SIZE = 14;
+
+    /** Number of bytes in each note record. */
+    public static final int NOTE_SIZE = 6;
+
+    /** Largest number of names or lanes that the format can index. */
+    public static final int MAX_INDEX = 0xFFFF;
+
+    /** Path to the binary chart file. */
+    private final String file;
+
+    /** Number of the lane or note record being handled, starting from 1. */
+    private int record = 0;
+
+    /**
+     * Constructs a reader for the binary chart in the given file.
+     *
+     * @param file the path to the binary chart file.
+     */
+    public BinaryChart(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Works out where the compiled binary chart for a CSV chart is kept.
+     *
+     * @param csvFile the path to the CSV chart file.
+     * @return the path to the binary chart file.
+     */
+    public static String compiledPath(String csvFile) {
+        if (csvFile.endsWith(CSV_EXTENSION)) {
+            return csvFile.substring(0, csvFile.length() - CSV_EXTENSION.length()) + EXTENSION;
+        }
+        return csvFile + EXTENSION;
+    }
+
+    /**
+     * Computes the CRC-32 checksum of a CSV chart file, as stored in the header of the binary
+     * charts compiled from it.
+     *
+     * @param csvFile the path to the CSV chart file.
+     * @return the checksum of the file's bytes, truncated to an int.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int sourceChecksum(String csvFile) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(Paths.get(csvFile)));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks whether a binary chart was compiled from the CSV chart as it is now. Only the header
+     * of the binary chart is read. If the CSV chart has the length and modification time it had
+     * when compiled, it is not read at all; otherwise its checksum is compared with the one in
+     * the header.
+     *
+     * @param compiledFile the path to the binary chart file.
+     * @param csvFile      the path to the CSV chart file.
+     * @return true if the binary chart is of this version and was compiled from the CSV chart,
+     *         false otherwise.
+     * @throws IOException if either file cannot be read.
+     */
+    public static boolean isCompiledFrom(String compiledFile, String csvFile) throws IOException {
+        int sourceCrc;
+        long sourceLength;
+        long sourceModified;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(compiledFile))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                return false;
+            }
+            // Skip the counts and checksums stored before those of the CSV chart
+            in.readFully(new byte[SOURCE_OFFSET - Integer.BYTES - Short.BYTES]);
+            sourceCrc = in.readInt();
+            sourceLength = in.readLong();
+            sourceModified = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        File csv = new File(csvFile);
+        if (csv.length() == sourceLength && csv.lastModified() == sourceModified) {
+            return true;
+        }
+        return sourceCrc == sourceChecksum(csvFile);
+    }
+
+    /**
+     * Maps the chart and passes every lane, then the notes of each lane in order, to the handler.
+     *
+     * @param handler the handler receiving the lanes and notes.
+     * @throws ChartFormatException if the chart is corrupt or rejected by the handler.
+     * @throws IOException if the chart cannot be read.
+     */
+    @Override
+    public void parse(ChartHandler handler) throws IOException {
+        record = 0;
+        ByteBuffer buffer = map();
+        try {
+            read(buffer, handler);
+        } catch (BufferUnderflowException e) {
+            throw new ChartFormatException(file, record, 1, "unexpected end of chart");
+        }
+    }
+
+    /**
+     * Builds an exception for a problem with a field of the lane or note record being handled.
+     *
+     * @param fieldIndex the index of the field with the problem.
+     * @param message    a description of the problem.
+     * @return the exception, to be thrown by the caller.
+     */
+    @Override
+    public ChartFormatException error(int fieldIndex, String message) {
+        return new ChartFormatException(file, record, fieldIndex + 1, message);
+    }
+
+    /**
+     * Maps the whole chart file into memory.
+     *
+     * @return a read-only buffer over the file.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private MappedByteBuffer map() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ChartFormatException(file, 0, 1, "chart is too large");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Checks the header and checksums, then reads the tables and notes.
+     *
+     * @param buffer  the buffer over the chart file.
+     * @param handler the handler receiving the lanes and notes.
+     * @throws ChartFormatException if the chart is corrupt or rejected by the handler.
+     */
+    private void read(ByteBuffer buffer, ChartHandler handler) throws ChartFormatException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw corrupt("not a binary chart");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw corrupt("unsupported version " + version);
+        }
+        int laneCount = buffer.getShort() & MAX_INDEX;
+        int nameCount = buffer.getInt();
+        int noteCount = buffer.getInt();
+        int tablesLength = buffer.getInt();
+        int tablesCrc = buffer.getInt();
+        int notesCrc = buffer.getInt();
+        // The CSV chart's checksum, length and modification time are only checked when
+        // choosing which chart to load
+        buffer.position(HEADER_SIZE);
+
+        if (nameCount < 0 || nameCount > MAX_INDEX || noteCount < 0 || tablesLength < 0
+                || (long) tablesLength + (long) noteCount * NOTE_SIZE != buffer.remaining()) {
+            throw corrupt("header does not match the size of the chart");
+        }
+        int tablesStart = buffer.position();
+        int notesStart = tablesStart + tablesLength;
+        if (checksum(buffer, tablesStart, notesStart) != tablesCrc) {
+            throw corrupt("lane table checksum mismatch");
+        }
+        if (checksum(buffer, notesStart, buffer.limit()) != notesCrc) {
+            throw corrupt("note checksum mismatch");
+        }
+
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            byte[] bytes = new byte[buffer.getShort() & MAX_INDEX];
+            buffer.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (buffer.position() + laneCount * LANE_SIZE != notesStart) {
+            throw corrupt("lane table does not match its length");
+        }
+
+        String[] laneNames = new String[laneCount];
+        int[] firstNotes = new int[laneCount];
+        int[] noteCounts = new int[laneCount];
+        int nextNote = 0;
+        for (int i = 0; i < laneCount; i++) {
+            record++;
+            laneNames[i] = name(names, buffer.getShort(), TYPE_FIELD);
+            int location = buffer.getInt();
+            firstNotes[i] = buffer.getInt();
+            noteCounts[i] = buffer.getInt();
+            if (firstNotes[i] != nextNote || noteCounts[i] < 0 || noteCounts[i] > noteCount - nextNote) {
+                throw error(VALUE_FIELD, "note range does not follow the previous lane");
+            }
+            nextNote += noteCounts[i];
+            handler.lane(laneNames[i], location);
+        }
+        if (nextNote != noteCount) {
+            throw corrupt("lanes do not cover every note");
+        }
+
+        for (int i = 0; i < laneCount; i++) {
+            int previousFrame = 0;
+            for (int j = 0; j < noteCounts[i]; j++) {
+                record++;
+                int appearanceFrame = buffer.getInt();
+                String type = name(names, buffer.getShort(), TYPE_FIELD);
+                if (appearanceFrame < previousFrame) {
+                    throw error(VALUE_FIELD, "notes are not sorted by appearance frame");
+                }
+                previousFrame = appearanceFrame;
+                handler.note(laneNames[i], type, appearanceFrame);
+            }
+        }
+    }
+
+    /**
+     * Looks up a name in the name table.
+     *
+     * @param names      the name table.
+     * @param index      the stored index of the name.
+     * @param fieldIndex the index of the field holding the name, used in error messages.
+     * @return the name.
+     * @throws ChartFormatException if the index is outside the name table.
+     */
+    private String name(String[] names, short index, int fieldIndex) throws ChartFormatException {
+        int i = index & MAX_INDEX;
+        if (i >= names.length) {
+            throw error(fieldIndex, "name index " + i + " is out of range");
+        }
+        return names[i];
+    }
+
+    /**
+     * Computes the CRC-32 checksum of part of the buffer, leaving its position unchanged.
+     *
+     * @param buffer the buffer over the chart file.
+     * @param start  the index of the first byte to include.
+     * @param end    the index after the last byte to include.
+     * @return the checksum, truncated to an int.
+     */
+    private static int checksum(ByteBuffer buffer, int start, int end) {
+        ByteBuffer part = buffer.duplicate();
+        part.position(start).limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(part);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Builds an exception for a problem with the chart as a whole.
+     *
+     * @param message a description of the problem.
+     * @return the exception, to be thrown by the caller.
+     */
+    private ChartFormatException corrupt(String message) {
+        return new ChartFormatException(file, record, 1, message);
+    }
+}
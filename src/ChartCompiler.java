@@ -0,0 +1,241 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles CSV charts into the binary chart format read by {@link BinaryChart}.
+ * Notes are grouped by lane and sorted by appearance frame, keeping the chart order of notes
+ * on the same frame, so that loading the binary chart gives the same lanes as the CSV chart.
+ * Run with the paths of CSV charts to write each binary chart next to its CSV chart. Each
+ * binary chart records the checksum, length and modification time of its CSV chart, so that it
+ * is only used while the CSV chart is unchanged.
+ */
+public class ChartCompiler implements ChartHandler {
+    /** Number of notes each lane has room for before growing. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Source of the chart being compiled. */
+    private ChartSource source;
+
+    /** Lane and note types, in the order they were first seen. */
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /** Index of each lane and note type in the name table. */
+    private final HashMap<String, Integer> nameIndices = new HashMap<>();
+
+    /** Types of the lanes, in chart order. */
+    private final ArrayList<String> laneTypes = new ArrayList<>();
+
+    /** Locations of the lanes, in chart order. */
+    private final ArrayList<Integer> laneLocations = new ArrayList<>();
+
+    /** Index of each lane by type. */
+    private final HashMap<String, Integer> laneIndices = new HashMap<>();
+
+    /**
+     * Notes of each lane, each packed as the appearance frame in the upper half and the note's
+     * position in the chart in the lower half, so that sorting orders them stably by frame.
+     */
+    private final ArrayList<long[]> laneNotes = new ArrayList<>();
+
+    /** Number of notes in each lane. */
+    private final ArrayList<Integer> laneNoteCounts = new ArrayList<>();
+
+    /** Name table index of the type of each note, in chart order. */
+    private int[] noteTypes = new int[INITIAL_CAPACITY];
+
+    /** Number of notes in the chart. */
+    private int noteCount = 0;
+
+    /**
+     * Compiles each CSV chart given on the command line into a binary chart next to it.
+     *
+     * @param args the paths to the CSV charts.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ChartCompiler <chart.csv>...");
+            System.exit(1);
+        }
+        for (String file : args) {
+            String output = BinaryChart.compiledPath(file);
+            try {
+                ChartCompiler compiler = new ChartCompiler();
+                try (Reader reader = new FileReader(file)) {
+                    compiler.compile(new ChartParser(reader, file));
+                }
+                compiler.write(output, file);
+                System.out.println(file + " -> " + output + " (" + compiler.noteCount + " notes)");
+            } catch (IOException e) {
+                System.err.println("Cannot compile chart: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Reads every lane and note of a chart.
+     *
+     * @param source the source of the chart.
+     * @throws ChartFormatException if the chart is malformed.
+     * @throws IOException if the chart cannot be read.
+     */
+    public void compile(ChartSource source) throws IOException {
+        this.source = source;
+        source.parse(this);
+    }
+
+    /**
+     * Records a lane definition.
+     *
+     * @param type     the type of the lane, such as "Left" or "Special".
+     * @param location the on-screen location of the lane.
+     * @throws ChartFormatException if a lane of the same type was already defined.
+     */
+    @Override
+    public void lane(String type, int location) throws ChartFormatException {
+        if (laneIndices.containsKey(type)) {
+            throw source.error(ChartSource.TYPE_FIELD, "duplicate lane '" + type + "'");
+        }
+        if (laneTypes.size() == BinaryChart.MAX_INDEX) {
+            throw source.error(ChartSource.TYPE_FIELD, "too many lanes");
+        }
+        nameIndex(type);
+        laneIndices.put(type, laneTypes.size());
+        laneTypes.add(type);
+        laneLocations.add(location);
+        laneNotes.add(new long[INITIAL_CAPACITY]);
+        laneNoteCounts.add(0);
+    }
+
+    /**
+     * Records a note in its lane.
+     *
+     * @param lane            the type of the lane the note belongs to.
+     * @param type            the type of the note, such as "Normal" or "Bomb".
+     * @param appearanceFrame the frame on which the note appears.
+     * @throws ChartFormatException if the lane has not been defined.
+     */
+    @Override
+    public void note(String lane, String type, int appearanceFrame) throws ChartFormatException {
+        Integer laneIndex = laneIndices.get(lane);
+        if (laneIndex == null) {
+            throw source.error(ChartSource.LANE_FIELD, "unknown lane '" + lane + "'");
+        }
+
+        if (noteCount == noteTypes.length) {
+            noteTypes = Arrays.copyOf(noteTypes, noteCount * 2);
+        }
+        noteTypes[noteCount] = nameIndex(type);
+
+        long[] notes = laneNotes.get(laneIndex);
+        int count = laneNoteCounts.get(laneIndex);
+        if (count == notes.length) {
+            notes = Arrays.copyOf(notes, count * 2);
+            laneNotes.set(laneIndex, notes);
+        }
+        notes[count] = ((long) appearanceFrame << 32) | noteCount;
+        laneNoteCounts.set(laneIndex, count + 1);
+        noteCount++;
+    }
+
+    /**
+     * Writes the compiled chart to a binary chart file.
+     *
+     * @param file    the path to the binary chart file.
+     * @param csvFile the path to the CSV chart compiled, whose checksum, length and
+     *                modification time are recorded.
+     * @throws IOException if the file cannot be written or the CSV chart cannot be read.
+     */
+    public void write(String file, String csvFile) throws IOException {
+        ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+        DataOutputStream tables = new DataOutputStream(tableBytes);
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            tables.writeShort(bytes.length);
+            tables.write(bytes);
+        }
+        int firstNote = 0;
+        for (int i = 0; i < laneTypes.size(); i++) {
+            tables.writeShort(nameIndices.get(laneTypes.get(i)));
+            tables.writeInt(laneLocations.get(i));
+            tables.writeInt(firstNote);
+            tables.writeInt(laneNoteCounts.get(i));
+            firstNote += laneNoteCounts.get(i);
+        }
+
+        ByteArrayOutputStream noteBytes = new ByteArrayOutputStream(noteCount * BinaryChart.NOTE_SIZE);
+        DataOutputStream notes = new DataOutputStream(noteBytes);
+        for (int i = 0; i < laneTypes.size(); i++) {
+            long[] packed = laneNotes.get(i);
+            int count = laneNoteCounts.get(i);
+            Arrays.sort(packed, 0, count);
+            for (int j = 0; j < count; j++) {
+                notes.writeInt((int) (packed[j] >>> 32));
+                notes.writeShort(noteTypes[(int) packed[j]]);
+            }
+        }
+
+        byte[] tableData = tableBytes.toByteArray();
+        byte[] noteData = noteBytes.toByteArray();
+        File source = new File(csvFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(BinaryChart.MAGIC);
+            out.writeShort(BinaryChart.VERSION);
+            out.writeShort(laneTypes.size());
+            out.writeInt(names.size());
+            out.writeInt(noteCount);
+            out.writeInt(tableData.length);
+            out.writeInt(checksum(tableData));
+            out.writeInt(checksum(noteData));
+            out.writeInt(BinaryChart.sourceChecksum(csvFile));
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.write(tableData);
+            out.write(noteData);
+        }
+    }
+
+    /**
+     * Finds the index of a name in the name table, adding it if it is new.
+     *
+     * @param name the lane or note type.
+     * @return the index of the name.
+     * @throws ChartFormatException if the name table is full or the name is too long.
+     */
+    private int nameIndex(String name) throws ChartFormatException {
+        Integer index = nameIndices.get(name);
+        if (index == null) {
+            if (names.size() == BinaryChart.MAX_INDEX
+                    || name.getBytes(StandardCharsets.UTF_8).length > BinaryChart.MAX_INDEX) {
+                throw source.error(ChartSource.TYPE_FIELD, "too many or too long names");
+            }
+            index = names.size();
+            names.add(name);
+            nameIndices.put(name, index);
+        }
+        return index;
+    }
+
+    /**
+     * Computes the CRC-32 checksum of some bytes.
+     *
+     * @param data the bytes.
+     * @return the checksum, truncated to an int.
+     */
+    private static int checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,47 @@
+import java.io.IOException;
+
+/**
+ * Signals a malformed chart, reporting where in the chart file the problem was found.
+ */
+public class ChartFormatException extends IOException {
+    /** Version of the serialized form of the exception. */
+    private static final long serialVersionUID = 1L;
+
+    /** Line of the chart file on which the problem was found, starting from 1. */
+    private final int line;
+
+    /** Column of the chart file at which the problem was found, starting from 1. */
+    private final int column;
+
+    /**
+     * Constructs a new exception for a problem at the given position of a chart file.
+     *
+     * @param source  the name of the chart file.
+     * @param line    the line on which the problem was found.
+     * @param column  the column at which the problem was found.
+     * @param message a description of the problem.
+     */
+    public ChartFormatException(String source, int line, int column, String message) {
+        super(source + ":" + line + ":" + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Retrieves the line on which the problem was found.
+     *
+     * @return the line number, starting from 1.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Retrieves the column at which the problem was found.
+     *
+     * @return the column number, starting from 1.
+     */
+    public int getColumn() {
+        return column;
+    }
+}
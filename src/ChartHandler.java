@@ -0,0 +1,23 @@
+/**
+ * Receives the lanes and notes of a chart as they are parsed.
+ */
+public interface ChartHandler {
+    /**
+     * Handles a lane definition.
+     *
+     * @param type     the type of the lane, such as "Left" or "Special".
+     * @param location the on-screen location of the lane.
+     * @throws ChartFormatException if the lane is invalid.
+     */
+    void lane(String type, int location) throws ChartFormatException;
+
+    /**
+     * Handles a note.
+     *
+     * @param lane            the type of the lane the note belongs to.
+     * @param type            the type of the note, such as "Normal" or "Bomb".
+     * @param appearanceFrame the frame on which the note appears.
+     * @throws ChartFormatException if the note is invalid.
+     */
+    void note(String lane, String type, int appearanceFrame) throws ChartFormatException;
+}
@@ -0,0 +1,132 @@
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+
+/**
+ * Builds the lanes and notes of a level from a chart file.
+ * Lane and note types are looked up in registries filled in by each level, and notes find
+ * their lane through a map, so a single loader serves every level.
+ * A compiled binary chart next to the CSV chart is used instead when it was compiled from the
+ * CSV chart as it is now.
+ */
+public class ChartLoader implements ChartHandler {
+    /** Level receiving the lanes. */
+    private final Level level;
+
+    /** Factories for each note type that may appear in the chart. */
+    private final HashMap<String, NoteFactory> noteTypes = new HashMap<>();
+
+    /** Factories for lane types that need a specific kind of lane. */
+    private final HashMap<String, LaneFactory> laneTypes = new HashMap<>();
+
+    /** Lanes defined so far, keyed by type. */
+    private final HashMap<String, Lane> lanes = new HashMap<>();
+
+    /** Source of the chart being loaded. */
+    private ChartSource source;
+
+    /**
+     * Constructs a loader that adds the lanes it reads to the given level.
+     *
+     * @param level the level receiving the lanes.
+     */
+    public ChartLoader(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Registers a note type that may appear in the chart.
+     *
+     * @param type    the name of the note type in the chart.
+     * @param factory the factory creating notes of the type.
+     */
+    public void registerNoteType(String type, NoteFactory factory) {
+        noteTypes.put(type, factory);
+    }
+
+    /**
+     * Registers a lane type that needs a specific kind of lane.
+     * Lanes of unregistered types are normal lanes.
+     *
+     * @param type    the name of the lane type in the chart.
+     * @param factory the factory creating lanes of the type.
+     */
+    public void registerLaneType(String type, LaneFactory factory) {
+        laneTypes.put(type, factory);
+    }
+
+    /**
+     * Loads the chart in the given CSV file, or its compiled binary chart if that was compiled
+     * from the CSV file as it is now. The CSV file is only read to check this when its length or
+     * modification time has changed since it was compiled. A binary chart with no CSV file next
+     * to it is always used.
+     *
+     * @param file the path to the CSV chart file.
+     * @throws ChartFormatException if the chart is malformed.
+     * @throws IOException if the chart cannot be read.
+     */
+    public void load(String file) throws IOException {
+        File csv = new File(file);
+        File compiled = new File(BinaryChart.compiledPath(file));
+        if (compiled.isFile() && (!csv.exists() || BinaryChart.isCompiledFrom(compiled.getPath(), file))) {
+            load(new BinaryChart(compiled.getPath()));
+        } else {
+            try (Reader reader = new FileReader(csv)) {
+                load(new ChartParser(reader, file));
+            }
+        }
+    }
+
+    /**
+     * Loads the chart supplied by the given source.
+     *
+     * @param source the source of the chart.
+     * @throws ChartFormatException if the chart is malformed.
+     * @throws IOException if the chart cannot be read.
+     */
+    public void load(ChartSource source) throws IOException {
+        this.source = source;
+        source.parse(this);
+    }
+
+    /**
+     * Creates a lane and adds it to the level.
+     *
+     * @param type     the type of the lane, such as "Left" or "Special".
+     * @param location the on-screen location of the lane.
+     * @throws ChartFormatException if a lane of the type was already defined.
+     */
+    @Override
+    public void lane(String type, int location) throws ChartFormatException {
+        if (lanes.containsKey(type)) {
+            throw source.error(ChartSource.TYPE_FIELD, "duplicate lane '" + type + "'");
+        }
+        LaneFactory factory = laneTypes.get(type);
+        Lane lane = factory != null ? factory.create(type, location) : new NormalLane(type, location);
+        lanes.put(type, lane);
+        level.addLane(lane);
+    }
+
+    /**
+     * Creates a note and adds it to its lane.
+     *
+     * @param lane            the type of the lane the note belongs to.
+     * @param type            the type of the note, such as "Normal" or "Bomb".
+     * @param appearanceFrame the frame on which the note appears.
+     * @throws ChartFormatException if the lane was not defined or the note type is not registered.
+     */
+    @Override
+    public void note(String lane, String type, int appearanceFrame) throws ChartFormatException {
+        Lane target = lanes.get(lane);
+        if (target == null) {
+            throw source.error(ChartSource.LANE_FIELD, "unknown lane '" + lane + "'");
+        }
+        NoteFactory factory = noteTypes.get(type);
+        if (factory == null) {
+            throw source.error(ChartSource.TYPE_FIELD, "unknown note type '" + type + "'");
+        }
+        target.addNote(factory.create(lane, appearanceFrame));
+    }
+}
@@ -0,0 +1,188 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Streams a CSV chart to a {@link ChartHandler}, one line at a time.
+ * Each line has three comma-separated fields: either {@code Lane,<type>,<location>} or
+ * {@code <lane>,<note type>,<appearance frame>}. Lines are scanned in place rather than split,
+ * and repeated names resolve to the same string, so parsing allocates nothing per line and
+ * handles charts of any length in bounded memory and linear time.
+ */
+public class ChartParser implements ChartSource {
+    /** Number of fields on each line. */
+    private static final int FIELDS = 3;
+
+    /** Value of the first field on lines that define a lane. */
+    private static final String LANE_KEYWORD = "Lane";
+
+    /** Number of characters read from the chart at a time. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Reader supplying the chart. */
+    private final Reader reader;
+
+    /** Name of the chart, used in error messages. */
+    private final String source;
+
+    /** Characters read from the chart but not yet scanned. */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /** Number of valid characters in the buffer. */
+    private int length = 0;
+
+    /** Index of the next character to scan in the buffer. */
+    private int position = 0;
+
+    /** Characters of the name field being scanned. */
+    private final StringBuilder field = new StringBuilder();
+
+    /** Names seen so far, so that repeated names resolve to the same string. */
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /** Names in the lane and type fields of the current line. */
+    private final String[] lineNames = new String[VALUE_FIELD];
+
+    /** Columns at which each field of the current line starts. */
+    private final int[] columns = new int[FIELDS];
+
+    /** Number of the line being scanned, starting from 1. */
+    private int line = 0;
+
+    /**
+     * Constructs a parser for the chart supplied by the given reader.
+     *
+     * @param reader the reader supplying the chart.
+     * @param source the name of the chart, used in error messages.
+     */
+    public ChartParser(Reader reader, String source) {
+        this.reader = reader;
+        this.source = source;
+        names.add(LANE_KEYWORD);
+    }
+
+    /**
+     * Parses the whole chart, passing each lane and note to the handler in file order.
+     * Blank lines are skipped.
+     *
+     * @param handler the handler receiving the lanes and notes.
+     * @throws ChartFormatException if a line is malformed or rejected by the handler.
+     * @throws IOException if the chart cannot be read.
+     */
+    @Override
+    public void parse(ChartHandler handler) throws IOException {
+        int c = read();
+        while (c != -1) {
+            line++;
+            int fields = 0;
+            int column = 1;
+            int value = 0;
+            boolean digits = false;
+            boolean blank = true;
+            field.setLength(0);
+            columns[LANE_FIELD] = 1;
+
+            while (c != -1 && c != '\n') {
+                if (c != '\r') {
+                    blank = false;
+                    if (c == ',') {
+                        if (fields == VALUE_FIELD) {
+                            throw new ChartFormatException(source, line, column, "expected " + FIELDS + " fields");
+                        }
+                        lineNames[fields] = endName(fields);
+                        fields++;
+                        columns[fields] = column + 1;
+                    } else if (fields < VALUE_FIELD) {
+                        field.append((char) c);
+                    } else if (c >= '0' && c <= '9') {
+                        int digit = c - '0';
+                        if (value > (Integer.MAX_VALUE - digit) / 10) {
+                            throw error(VALUE_FIELD, "number is too large");
+                        }
+                        value = value * 10 + digit;
+                        digits = true;
+                    } else {
+                        throw new ChartFormatException(source, line, column, "expected a digit but found '" + (char) c + "'");
+                    }
+                }
+                column++;
+                c = read();
+            }
+            if (c == '\n') {
+                c = read();
+            }
+
+            if (blank) {
+                continue;
+            }
+            if (fields != VALUE_FIELD) {
+                throw new ChartFormatException(source, line, column, "expected " + FIELDS + " fields but found " + (fields + 1));
+            }
+            if (!digits) {
+                throw error(VALUE_FIELD, "expected a number");
+            }
+
+            if (lineNames[LANE_FIELD].equals(LANE_KEYWORD)) {
+                handler.lane(lineNames[TYPE_FIELD], value);
+            } else {
+                handler.note(lineNames[LANE_FIELD], lineNames[TYPE_FIELD], value);
+            }
+        }
+    }
+
+    /**
+     * Builds an exception for a problem with a field of the line being parsed.
+     *
+     * @param fieldIndex the index of the field with the problem.
+     * @param message    a description of the problem.
+     * @return the exception, to be thrown by the caller.
+     */
+    @Override
+    public ChartFormatException error(int fieldIndex, String message) {
+        return new ChartFormatException(source, line, columns[fieldIndex], message);
+    }
+
+    /**
+     * Finishes scanning a name field, resolving it to the string of any identical earlier name.
+     *
+     * @param fieldIndex the index of the field being finished.
+     * @return the name in the field.
+     * @throws ChartFormatException if the field is empty.
+     */
+    private String endName(int fieldIndex) throws ChartFormatException {
+        if (field.length() == 0) {
+            throw error(fieldIndex, "empty field");
+        }
+        String name = null;
+        for (String seen : names) {
+            if (seen.contentEquals(field)) {
+                name = seen;
+                break;
+            }
+        }
+        if (name == null) {
+            name = field.toString();
+            names.add(name);
+        }
+        field.setLength(0);
+        return name;
+    }
+
+    /**
+     * Reads the next character of the chart.
+     *
+     * @return the next character, or -1 at the end of the chart.
+     * @throws IOException if the chart cannot be read.
+     */
+    private int read() throws IOException {
+        if (position == length) {
+            length = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (length <= 0) {
+                length = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
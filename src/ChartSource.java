@@ -0,0 +1,34 @@
+import java.io.IOException;
+
+/**
+ * Supplies the lanes and notes of a chart, whether parsed from CSV or read from a compiled
+ * binary chart.
+ */
+public interface ChartSource {
+    /** Index of the field holding "Lane" or the lane of a note. */
+    int LANE_FIELD = 0;
+
+    /** Index of the field holding the type of a lane or note. */
+    int TYPE_FIELD = 1;
+
+    /** Index of the field holding the location of a lane or appearance frame of a note. */
+    int VALUE_FIELD = 2;
+
+    /**
+     * Passes every lane and note of the chart to the handler, each lane before its notes.
+     *
+     * @param handler the handler receiving the lanes and notes.
+     * @throws ChartFormatException if the chart is malformed or rejected by the handler.
+     * @throws IOException if the chart cannot be read.
+     */
+    void parse(ChartHandler handler) throws IOException;
+
+    /**
+     * Builds an exception for a problem with a field of the lane or note being handled.
+     *
+     * @param fieldIndex the index of the field with the problem.
+     * @param message    a description of the problem.
+     * @return the exception, to be thrown by the caller.
+     */
+    ChartFormatException error(int fieldIndex, String message);
+}
@@ -0,0 +1,92 @@
+/**
+ * Keeps running counts of the notes registered with and completed in a lane or level,
+ * so that finish detection takes constant time instead of scanning every note.
+ * A lane's counter reports to its level's counter, which therefore covers every lane.
+ */
+public class CompletionCounter {
+    /** Counter that every registration and completion is also reported to, if any. */
+    private CompletionCounter parent = null;
+
+    /** Number of notes registered with the counter. */
+    private int total = 0;
+
+    /** Number of registered notes that have been completed. */
+    private int completed = 0;
+
+    /**
+     * Sets the counter that this counter reports to, adding the notes counted so far to it.
+     *
+     * @param parent the counter to report to.
+     */
+    public void setParent(CompletionCounter parent) {
+        this.parent = parent;
+        parent.add(total, completed);
+    }
+
+    /** Registers a note that has not yet been completed. */
+    public void register() {
+        add(1, 0);
+    }
+
+    /** Records the completion of a registered note. */
+    public void complete() {
+        add(0, 1);
+    }
+
+    /**
+     * Retrieves the number of registered notes that have not yet been completed.
+     *
+     * @return the number of remaining notes.
+     */
+    public int getRemaining() {
+        return total - completed;
+    }
+
+    /**
+     * Retrieves the number of registered notes that have been completed.
+     *
+     * @return the number of completed notes.
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Checks if every registered note has been completed.
+     *
+     * @return true if no notes remain, false otherwise.
+     */
+    public boolean isFinished() {
+        return completed == total;
+    }
+
+    /**
+     * Sets how many notes are completed, for when notes are completed or restored by seeking
+     * rather than one at a time.
+     *
+     * @param completed the number of completed notes.
+     */
+    public void setCompleted(int completed) {
+        add(0, completed - this.completed);
+    }
+
+    /** Clears the counts, without affecting the parent counter. */
+    public void reset() {
+        total = 0;
+        completed = 0;
+    }
+
+    /**
+     * Adds to the counts of this counter and its parent.
+     *
+     * @param registered the number of notes registered.
+     * @param done       the number of notes completed.
+     */
+    private void add(int registered, int done) {
+        total += registered;
+        completed += done;
+        if (parent != null) {
+            parent.add(registered, done);
+        }
+    }
+}
@@ -1,8 +1,5 @@
-import bagel.Input;
 import bagel.Keys;
 
-import java.util.ArrayList;
-
 /**
  * Represents a special note in a rhythm game, specifically a "Double Score Note".
  * When activated, a Double Score Note can double the score of subsequent notes for a period.
@@ -29,15 +26,17 @@ public class DoubleScoreNote extends SpecialNote {
      *
      * @param input         the input representing user actions
      * @param accuracy      the accuracy system to determine how well the note was hit
+     * @param clock         the clock of the level the note belongs to
      * @param targetHeight  the intended height for hitting the note
      * @param relevantKey   the key corresponding to this note's lane
-     * @param notes         the list of notes present in the game
+     * @param lane          the lane the note belongs to
      * @return always returns 0 for DoubleScoreNote as it does not contribute to the score directly
      */
     @Override
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes) {
+    public int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane) {
         if (isActive()) {
-            int effect = accuracy.evaluateEffect(getY(), targetHeight, input.wasPressed(relevantKey), MESSAGE);
+            double offset = getHitOffset(input.getPressTime(relevantKey), clock, getY(), targetHeight);
+            int effect = accuracy.evaluateEffect(offset, getY(), input.wasPressed(relevantKey), MESSAGE);
             if (effect == Accuracy.EFFECT_ACTIVATED) {
                 accuracy.doubleScore();
             }
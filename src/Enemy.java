@@ -10,13 +10,13 @@ public class Enemy extends Entity {
     private final static int ENEMY_SPEED = 1;
 
     /** Path to the image of the enemy. */
-    private final static String IMAGE_PATH = "res/enemy.PNG";
+    public final static String IMAGE_PATH = "res/enemy.PNG";
 
     /** Current direction of movement of the enemy. */
     private int direction;
 
     /** Distance threshold for a collision between the enemy and a note. */
-    private final static int COLLISION_DISTANCE = 104;
+    public final static int COLLISION_DISTANCE = 104;
 
     /** Maximum random X-coordinate for initializing the enemy's position. */
     private final static int RANDOM_X = 801;
@@ -34,56 +34,91 @@ public class Enemy extends Entity {
     private final static int X_UPPER_LIMIT = 900;
 
     /**
-     * Constructs a new Enemy at a random position within specified bounds.
+     * Constructs a new Enemy at the starting position, ready to be spawned.
      */
     public Enemy() {
-        super(new Random().nextInt(RANDOM_X) + START_X_Y, new Random().nextInt(RANDOM_Y) + START_X_Y, IMAGE_PATH);
-        this.direction = new Random().nextInt(2) == 0? -ENEMY_SPEED : ENEMY_SPEED;
+        super(START_X_Y, START_X_Y, IMAGE_PATH);
+        this.direction = ENEMY_SPEED;
     }
 
     /**
-     * Checks for collisions between this enemy and notes in the provided lanes.
-     * Removes the notes from the lanes if there's a collision.
+     * Places the enemy at a random position within specified bounds, moving in a random direction.
      *
-     * @param lanes the lanes to check for collisions with
+     * @param random the random number generator shared by the level's enemies
      */
-    public void isCollidingWith(ArrayList<Lane> lanes) {
+    public void spawn(Random random) {
+        setX(random.nextInt(RANDOM_X) + START_X_Y);
+        setY(random.nextInt(RANDOM_Y) + START_X_Y);
+        this.direction = random.nextInt(2) == 0? -ENEMY_SPEED : ENEMY_SPEED;
+        savePosition();
+    }
+
+    /**
+     * Retrieves the direction the enemy is moving in.
+     *
+     * @return the change in x-coordinate each frame
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Places the enemy at a saved position, moving in a saved direction.
+     *
+     * @param x         the x-coordinate of the enemy
+     * @param y         the y-coordinate of the enemy
+     * @param direction the change in x-coordinate each frame
+     */
+    public void place(double x, double y, int direction) {
+        setX(x);
+        setY(y);
+        this.direction = direction;
+        savePosition();
+    }
+
+    /**
+     * Removes every live note in the provided lanes that collides with an enemy.
+     * Each note looks up the enemies near it in the grid, so the cost grows with the number
+     * of notes and enemies rather than their product.
+     *
+     * @param lanes   the lanes to check for collisions with
+     * @param enemies the grid of enemy positions
+     */
+    public static void stealNotes(ArrayList<Lane> lanes, SpatialGrid enemies) {
+        if (enemies.size() == 0) {
+            return;
+        }
         for (Lane lane : lanes) {
-            ArrayList<Note> notesToRemove = new ArrayList<>();
-            for (Note note : lane.getNotes()) {
-                if (note instanceof NormalNote && note.isActive()) {
-                    double dx = getX() - lane.getLocation();
-                    double dy = getY() - note.getY();
-                    double distance = Math.sqrt(dx * dx + dy * dy);
-                    if (distance <= COLLISION_DISTANCE) {
-                        notesToRemove.add(note);
-                    }
+            for (Note note : lane.getLiveNotes()) {
+                if (note.canBeStolen()
+                        && enemies.firstWithin(lane.getLocation(), note.getY(), COLLISION_DISTANCE) != -1) {
+                    lane.removeNote(note);
                 }
             }
-            lane.getNotes().removeAll(notesToRemove);
         }
     }
 
     /**
-     * Draws the enemy on the screen.
+     * Queues the enemy to be drawn, between its positions after the last two ticks.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest
+     * @param queue the queue collecting the frame's draws
      */
     @Override
-    public void draw() {
-        getImage().draw(getX(), getY());
-
+    public void draw(double alpha, RenderQueue queue) {
+        queue.draw(getImagePath(), getDrawX(alpha), getDrawY(alpha), RenderQueue.ENEMY_LAYER);
     }
 
     /**
-     * Updates the state and position of the enemy, and redraws it.
+     * Updates the state and position of the enemy.
      */
     @Override
     public void update() {
-
+        savePosition();
         setX(getX() + direction);
 
         if (getX() <= X_LOWER_LIMIT || getX() >= X_UPPER_LIMIT) {
             direction = -direction;
         }
-        draw();
     }
 }
@@ -1,5 +1,3 @@
-import bagel.*;
-
 /**
  * Represents a general game entity with an associated image and position.
  * This abstract class provides a foundational structure for game entities,
@@ -7,8 +5,8 @@ import bagel.*;
  */
 public abstract class Entity {
 
-    /** The visual representation of the entity. */
-    private final Image image;
+    /** Path to the image representing the entity. */
+    private final String imagePath;
 
     /** The x-coordinate of the entity's position. */
     private double x;
@@ -16,6 +14,12 @@ public abstract class Entity {
     /** The y-coordinate of the entity's position. */
     private double y;
 
+    /** The x-coordinate of the entity's position before the latest tick. */
+    private double prevX;
+
+    /** The y-coordinate of the entity's position before the latest tick. */
+    private double prevY;
+
     /**
      * Constructs a new Entity with a specified position and image.
      *
@@ -24,16 +28,20 @@ public abstract class Entity {
      * @param imagePath The path to the image file representing the entity.
      */
     public Entity(double x, double y, String imagePath) {
-        this.image = new Image(imagePath);
+        this.imagePath = imagePath;
         this.x = x;
         this.y = y;
+        savePosition();
     }
 
     /**
-     * Draws the entity on the screen.
+     * Queues the entity to be drawn on the screen.
      * Implementation specifics are determined by the subclasses.
+     *
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @param queue The queue collecting the frame's draws.
      */
-    public abstract void draw();
+    public abstract void draw(double alpha, RenderQueue queue);
 
     /**
      * Updates the state and properties of the entity.
@@ -59,6 +67,37 @@ public abstract class Entity {
         return y;
     }
 
+    /**
+     * Remembers the current position as the one before the next tick, so that draws can
+     * interpolate from it. Called before the entity moves each tick, and after it is placed.
+     */
+    public void savePosition() {
+        prevX = x;
+        prevY = y;
+    }
+
+    /**
+     * Retrieves the x-coordinate to draw the entity at, between its positions after the
+     * previous tick and the latest tick.
+     *
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @return The interpolated x-coordinate of the entity.
+     */
+    public double getDrawX(double alpha) {
+        return prevX + (x - prevX) * alpha;
+    }
+
+    /**
+     * Retrieves the y-coordinate to draw the entity at, between its positions after the
+     * previous tick and the latest tick.
+     *
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @return The interpolated y-coordinate of the entity.
+     */
+    public double getDrawY(double alpha) {
+        return prevY + (y - prevY) * alpha;
+    }
+
     /**
      * Updates the x-coordinate of the entity's position.
      *
@@ -78,11 +117,11 @@ public abstract class Entity {
     }
 
     /**
-     * Retrieves the image representation of the entity.
+     * Retrieves the path to the image representing the entity.
      *
-     * @return The image of the entity.
+     * @return The path to the image file.
      */
-    public Image getImage() {
-        return image;
+    public String getImagePath() {
+        return imagePath;
     }
 }
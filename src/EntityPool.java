@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the live entities of one kind and recycles the ones that are released, so that
+ * entities spawned and removed many times over a level are only created once.
+ * Releasing an entity moves the last live entity into its place, so removal takes constant
+ * time but does not keep the live entities in the order they were acquired.
+ *
+ * @param <T> the kind of entity pooled.
+ */
+public class EntityPool<T extends Entity> {
+    /** Creates new entities when none are free. */
+    private final Supplier<T> factory;
+
+    /** Entities currently in play. */
+    private final ArrayList<T> live;
+
+    /** Released entities waiting to be reused. */
+    private final ArrayList<T> free;
+
+    /**
+     * Constructs a pool with entities created up front for the expected number in play.
+     *
+     * @param factory  creates new entities when none are free.
+     * @param capacity the number of entities expected in play at once.
+     */
+    public EntityPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.live = new ArrayList<>(capacity);
+        this.free = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            free.add(factory.get());
+        }
+    }
+
+    /**
+     * Puts a free entity into play, creating one if none are free.
+     * The caller is responsible for resetting its state.
+     *
+     * @return the entity, now the last live entity.
+     */
+    public T acquire() {
+        T entity = free.isEmpty() ? factory.get() : free.remove(free.size() - 1);
+        live.add(entity);
+        return entity;
+    }
+
+    /**
+     * Takes a live entity out of play, moving the last live entity into its place.
+     *
+     * @param index the index of the entity among the live entities.
+     */
+    public void release(int index) {
+        int last = live.size() - 1;
+        T entity = live.get(index);
+        live.set(index, live.get(last));
+        live.remove(last);
+        free.add(entity);
+    }
+
+    /**
+     * Takes every live entity out of play.
+     */
+    public void releaseAll() {
+        free.addAll(live);
+        live.clear();
+    }
+
+    /**
+     * Retrieves a live entity.
+     *
+     * @param index the index of the entity among the live entities.
+     * @return the entity.
+     */
+    public T get(int index) {
+        return live.get(index);
+    }
+
+    /**
+     * Retrieves the number of entities in play.
+     *
+     * @return the number of live entities.
+     */
+    public int size() {
+        return live.size();
+    }
+
+    /**
+     * Retrieves the entities in play. The list must not be modified.
+     *
+     * @return the live entities.
+     */
+    public ArrayList<T> getLive() {
+        return live;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Decides how many fixed-length simulation ticks are due each rendered frame.
+ * Elapsed time is added to an accumulator and spent one tick at a time, so the game
+ * advances at the same rate whatever the display's refresh rate, and a slow frame is made up
+ * with extra ticks. The time left over is the fraction of a tick to interpolate draws by.
+ * Time may come from the wall clock or from a {@link SongClock} following the music.
+ */
+public class FixedTimestep {
+    /** Simulation ticks per second. Chart frames, speeds and effect durations are in ticks. */
+    public static final int TICKS_PER_SECOND = 60;
+
+    /** Most ticks run in one rendered frame. Any more ticks due are run on later frames. */
+    public static final int MAX_TICKS_PER_FRAME = 15;
+
+    /** Number of nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** Length of one tick in nanoseconds. */
+    private final long tickNanos;
+
+    /** Time at which the accumulator was last advanced, in nanoseconds. */
+    private long lastTime;
+
+    /** Real time not yet spent on ticks, in nanoseconds. */
+    private long accumulator = 0;
+
+    /**
+     * Constructs a timestep running at {@link #TICKS_PER_SECOND}.
+     */
+    public FixedTimestep() {
+        this(TICKS_PER_SECOND);
+    }
+
+    /**
+     * Constructs a timestep running at the given rate.
+     *
+     * @param ticksPerSecond the number of simulation ticks per second.
+     */
+    public FixedTimestep(int ticksPerSecond) {
+        this.tickNanos = NANOS_PER_SECOND / ticksPerSecond;
+    }
+
+    /**
+     * Restarts timing from the given time with no ticks due, such as when play starts or resumes.
+     *
+     * @param now the current time in nanoseconds.
+     */
+    public void reset(long now) {
+        lastTime = now;
+        accumulator = 0;
+    }
+
+    /**
+     * Adds the time elapsed since the last call and takes the ticks now due out of it.
+     *
+     * @param now the current time in nanoseconds.
+     * @return the number of ticks to run this frame, at most {@link #MAX_TICKS_PER_FRAME}.
+     */
+    public int advance(long now) {
+        accumulator += Math.max(now - lastTime, 0);
+        lastTime = now;
+
+        int ticks = (int) Math.min(accumulator / tickNanos, MAX_TICKS_PER_FRAME);
+        accumulator -= ticks * tickNanos;
+        return ticks;
+    }
+
+    /**
+     * Retrieves how far the accumulated time is into the next tick, for interpolating draws
+     * between the last two ticks.
+     *
+     * @return a fraction from 0 (the previous tick) up to 1 (the latest tick).
+     */
+    public double getAlpha() {
+        return Math.min((double) accumulator / tickNanos, 1);
+    }
+}
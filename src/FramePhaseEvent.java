@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event timing one phase of a frame, such as drawing the background or
+ * updating a lane. Events are only created while a recording has them enabled; see
+ * {@link FrameProfiler}.
+ */
+@Name("shadowdance.FramePhase")
+@Label("Frame Phase")
+@Category("ShadowDance")
+@Description("Time taken by one phase of a rendered frame or simulation tick")
+@StackTrace(false)
+public class FramePhaseEvent extends jdk.jfr.Event {
+    /** Name of the phase, such as "Lane.update". */
+    @Label("Phase")
+    String phase;
+
+    /** Type of the lane updated, for lane phases. */
+    @Label("Lane")
+    String lane;
+
+    /** Number of lanes in the level. */
+    @Label("Lanes")
+    int lanes;
+
+    /** Number of notes on screen, in the lane for lane phases and in the level otherwise. */
+    @Label("Notes")
+    int notes;
+
+    /** Number of entities in the level, such as enemies and projectiles. */
+    @Label("Entities")
+    int entities;
+}
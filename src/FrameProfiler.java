@@ -0,0 +1,78 @@
+import jdk.jfr.EventType;
+
+/**
+ * Marks the phases of each frame with {@link FramePhaseEvent}s, so that a flight recording of a
+ * real session shows which phase caused each slow frame.
+ * When no recording has the events enabled, marking a phase costs a single flag check and
+ * allocates nothing. Phases do not nest, and must only be marked from the game loop's thread.
+ */
+public class FrameProfiler {
+    /** Phase drawing the background image. */
+    public static final String BACKGROUND_DRAW = "background.draw";
+
+    /** Phase updating Level 3's enemies and projectiles. */
+    public static final String UPDATE_ENEMIES = "Level3.updateEnemies";
+
+    /** Phase updating one lane's notes. */
+    public static final String LANE_UPDATE = "Lane.update";
+
+    /** Phase updating the accuracy display and effects. */
+    public static final String ACCURACY_UPDATE = "Accuracy.update";
+
+    /** Phase checking whether the level is finished. */
+    public static final String CHECK_FINISHED = "Level.checkFinished";
+
+    /** Phase handling and drawing a frame while the level is paused. */
+    public static final String PAUSED = "Level.updatePausedState";
+
+    /** Type of the frame phase events, checked to see if any recording wants them. */
+    private static final EventType EVENT_TYPE = EventType.getEventType(FramePhaseEvent.class);
+
+    /** Event of the phase being timed, or null if none is. */
+    private static FramePhaseEvent current = null;
+
+    /**
+     * Starts timing a phase, if frame phases are being recorded.
+     *
+     * @param phase the name of the phase.
+     */
+    public static void begin(String phase) {
+        if (EVENT_TYPE.isEnabled()) {
+            current = new FramePhaseEvent();
+            current.phase = phase;
+            current.begin();
+        }
+    }
+
+    /**
+     * Finishes timing the phase begun last, recording the level's lane, note and entity counts.
+     *
+     * @param level the level being played, or null if there is none.
+     */
+    public static void end(Level level) {
+        end(level, null);
+    }
+
+    /**
+     * Finishes timing the phase begun last, for a phase that updates a single lane.
+     *
+     * @param level the level being played, or null if there is none.
+     * @param lane  the lane the phase updated, or null if it is not a lane phase.
+     */
+    public static void end(Level level, Lane lane) {
+        if (current == null) {
+            return;
+        }
+        current.end();
+        if (current.shouldCommit()) {
+            if (level != null) {
+                current.lanes = level.lanes.size();
+                current.entities = level.countEntities();
+                current.notes = lane == null ? level.countLiveNotes() : lane.getLiveNotes().size();
+            }
+            current.lane = lane == null ? null : lane.getType();
+            current.commit();
+        }
+        current = null;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Tracks the current simulation frame and scroll speed of a level.
+ * Each level owns its own clock so that its game logic does not depend on global state.
+ * Every change of speed is kept in a {@link ScrollTimeline}, from which notes work out their
+ * positions.
+ */
+public class GameClock {
+    /** Scroll speed, in pixels per frame, at the start of a level. */
+    public static final int DEFAULT_SPEED = 2;
+
+    /** Length of one simulation frame, in nanoseconds of song time. */
+    public static final long NANOS_PER_TICK = 1_000_000_000L / FixedTimestep.TICKS_PER_SECOND;
+
+    /** Current frame of the simulation. */
+    private int currFrame = 0;
+
+    /** Current scroll speed of the notes. */
+    private int speed = DEFAULT_SPEED;
+
+    /** Every change of the scroll speed, by the frame it was made on. */
+    private final ScrollTimeline timeline = new ScrollTimeline();
+
+    /**
+     * Retrieves the current frame of the simulation.
+     *
+     * @return the current frame.
+     */
+    public int getCurrFrame() {
+        return currFrame;
+    }
+
+    /**
+     * Retrieves the song time of the current frame, which is when the frame's game logic
+     * takes effect.
+     *
+     * @return the time into the song, in nanoseconds.
+     */
+    public long getTime() {
+        return timeOf(currFrame);
+    }
+
+    /**
+     * Works out the song time of the given frame.
+     *
+     * @param frame the frame number.
+     * @return the time into the song, in nanoseconds.
+     */
+    public static long timeOf(int frame) {
+        return frame * NANOS_PER_TICK;
+    }
+
+    /**
+     * Retrieves the current scroll speed of the notes, which they move at from the next frame.
+     *
+     * @return the current speed.
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Retrieves the speed the notes moved at on the current frame.
+     *
+     * @return the speed in pixels per frame.
+     */
+    public int getFrameSpeed() {
+        return timeline.speedAt(currFrame);
+    }
+
+    /**
+     * Works out how far the notes have scrolled by the end of the given frame.
+     *
+     * @param frame the frame number.
+     * @return the distance scrolled since the level began, in pixels.
+     */
+    public long getScrollDistance(int frame) {
+        return timeline.distanceAt(frame);
+    }
+
+    /** Advances the simulation by one frame. */
+    public void tick() {
+        currFrame++;
+    }
+
+    /**
+     * Moves the clock to the given frame, keeping only the speed changes made before it.
+     * Changes skipped over by seeking forward are never made.
+     *
+     * @param frame the frame to move to.
+     */
+    public void seek(int frame) {
+        currFrame = frame;
+        timeline.truncate(frame);
+        speed = timeline.speedAt(frame + 1);
+    }
+
+    /**
+     * Makes this clock show the same frame, speed and speed changes as another, for saving or
+     * restoring a level's state.
+     *
+     * @param other the clock to copy.
+     */
+    public void copyFrom(GameClock other) {
+        currFrame = other.currFrame;
+        speed = other.speed;
+        timeline.copyFrom(other.timeline);
+    }
+
+    /** Increases the speed by 1 from the next frame. */
+    public void speedUp() {
+        speed++;
+        timeline.change(currFrame, speed);
+    }
+
+    /** Decreases the speed by 1 from the next frame. */
+    public void slowDown() {
+        speed--;
+        timeline.change(currFrame, speed);
+    }
+
+    /** Resets the clock to the start of the level. */
+    public void reset() {
+        currFrame = 0;
+        speed = DEFAULT_SPEED;
+        timeline.reset();
+    }
+}
@@ -12,7 +12,7 @@ public class Guardian extends Entity{
     private final static double GUARDIAN_Y = 600;
 
     /** Path to the image of the guardian. */
-    private final static String IMAGE_PATH = "res/guardian.png";
+    public final static String IMAGE_PATH = "res/guardian.png";
 
     /**
      * Constructs a new Guardian at a predefined position.
@@ -25,44 +25,41 @@ public class Guardian extends Entity{
      * Finds the closest enemy entity to this guardian from a list of enemies.
      *
      * @param enemies the list of enemies to search from
+     * @param grid    the grid of enemy positions, in the same order as the list
      * @return the closest Enemy object, or null if no enemies are provided
      */
-    public Enemy findClosestEnemy(ArrayList<Enemy> enemies) {
-        Enemy closestEnemy = null;
-        double minDistance = Double.MAX_VALUE;
-        for (Enemy enemy : enemies) {
-            double dx = enemy.getX() - this.getX();
-            double dy = enemy.getY() - this.getY();
-            double distance = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-            if (distance < minDistance) {
-                closestEnemy = enemy;
-                minDistance = distance;
-            }
-        }
-        return closestEnemy;
+    public Enemy findClosestEnemy(ArrayList<Enemy> enemies, SpatialGrid grid) {
+        int closest = grid.nearest(getX(), getY());
+        return closest == -1 ? null : enemies.get(closest);
     }
 
     /**
-     * Fires a projectile at the closest enemy.
+     * Fires a projectile from the pool at the closest enemy.
      *
-     * @param enemies the list of enemies
-     * @return a new Projectile aimed at the closest enemy, or null if no enemies are found
+     * @param enemies     the list of enemies
+     * @param grid        the grid of enemy positions, in the same order as the list
+     * @param projectiles the pool to take the projectile from
+     * @return the Projectile aimed at the closest enemy, or null if no enemies are found
      */
-    public Projectile fireAtClosestEnemy(ArrayList<Enemy> enemies) {
-        Enemy closestEnemy = findClosestEnemy(enemies);
+    public Projectile fireAtClosestEnemy(ArrayList<Enemy> enemies, SpatialGrid grid, EntityPool<Projectile> projectiles) {
+        Enemy closestEnemy = findClosestEnemy(enemies, grid);
         if (closestEnemy != null) {
-            return new Projectile(GUARDIAN_X, GUARDIAN_Y, closestEnemy);
-
+            Projectile projectile = projectiles.acquire();
+            projectile.fire(GUARDIAN_X, GUARDIAN_Y, closestEnemy);
+            return projectile;
         }
         return null;
     }
 
     /**
-     * Draws the guardian on the screen.
+     * Queues the guardian to be drawn. The guardian never moves, so nothing is interpolated.
+     *
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @param queue The queue collecting the frame's draws.
      */
     @Override
-    public void draw() {
-        getImage().draw(getX(), getY());
+    public void draw(double alpha, RenderQueue queue) {
+        queue.draw(getImagePath(), getX(), getY(), RenderQueue.GUARDIAN_LAYER);
     }
 
     /**
@@ -0,0 +1,138 @@
+import java.io.IOException;
+
+/**
+ * Runs the game logic of a level without a window or audio.
+ * Input is taken from a script, and nothing is drawn, so whole charts can be
+ * simulated quickly on machines without a display.
+ *
+ * Input can also be replayed from a session's input log, which reproduces the session's score.
+ *
+ * Usage: {@code HeadlessRunner <level> [script.csv] [seed]} or
+ * {@code HeadlessRunner --replay <file.replay>}
+ */
+public class HeadlessRunner {
+    /** Frames simulated after which a level is assumed never to finish. */
+    private static final int MAX_FRAMES = 1_000_000;
+
+    /** Argument introducing an input log to replay. */
+    private static final String REPLAY_OPTION = "--replay";
+
+    /**
+     * Main entry point for headless runs.
+     *
+     * @param args the level number, optionally followed by an input script file and a seed,
+     *             or {@value #REPLAY_OPTION} followed by an input log file.
+     * @throws IOException if the level's chart, the input script or the input log cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || (args[0].equals(REPLAY_OPTION) && args.length < 2)) {
+            System.err.println("Usage: HeadlessRunner <level> [script.csv] [seed]");
+            System.err.println("       HeadlessRunner " + REPLAY_OPTION + " <file.replay>");
+            System.exit(1);
+        }
+        if (args[0].equals(REPLAY_OPTION)) {
+            replay(args[1]);
+            return;
+        }
+
+        Level level = createLevel(Integer.parseInt(args[0]));
+        ScriptedInput script = args.length > 1 ? ScriptedInput.read(args[1]) : new ScriptedInput();
+        if (args.length > 2) {
+            level.setSeed(Long.parseLong(args[2]));
+        }
+
+        long start = System.nanoTime();
+        int frames = run(level, script, MAX_FRAMES);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Frames:     " + frames);
+        System.out.println("Score:      " + level.getScore());
+        System.out.println("Finished:   " + level.checkFinished());
+        System.out.printf("Ticks/sec:  %.0f%n", frames / (elapsed / 1e9));
+    }
+
+    /**
+     * Replays a session from its input log and checks that it reaches the recorded score.
+     *
+     * @param file the input log file.
+     * @throws IOException if the input log or the level's chart cannot be read.
+     */
+    private static void replay(String file) throws IOException {
+        InputLog log = InputLog.read(file);
+        Level level = createLevel(log.getLevelNumber());
+        level.setSeed(log.getSeed());
+        if (level.getChartHash() != log.getChartHash()) {
+            System.err.println("Warning: the chart of level " + log.getLevelNumber() + " has changed since the replay was recorded");
+        }
+
+        long start = System.nanoTime();
+        int frames = run(level, log, log.getFinalTick());
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Frames:     " + frames);
+        System.out.println("Score:      " + level.getScore());
+        System.out.println("Recorded:   " + log.getFinalScore());
+        System.out.println("Matches:    " + (frames == log.getFinalTick() && level.getScore() == log.getFinalScore()));
+        System.out.printf("Ticks/sec:  %.0f%n", frames / (elapsed / 1e9));
+    }
+
+    /**
+     * Creates the level with the given number.
+     *
+     * @param number the level number, from 1 to 3.
+     * @return the created level.
+     * @throws IOException if the level's chart cannot be read or is malformed.
+     */
+    public static Level createLevel(int number) throws IOException {
+        switch (number) {
+            case 1:
+                return new Level1();
+            case 2:
+                return new Level2();
+            case 3:
+                return new Level3();
+            default:
+                throw new IllegalArgumentException("Unknown level: " + number);
+        }
+    }
+
+    /**
+     * Simulates a level until it is finished or the frame limit is reached.
+     *
+     * @param level     the level to simulate.
+     * @param script    the scripted input to feed to the level.
+     * @param maxFrames the maximum number of frames to simulate.
+     * @return the number of frames simulated.
+     */
+    public static int run(Level level, ScriptedInput script, int maxFrames) {
+        TickInput input = new TickInput();
+        int frames = 0;
+        while (frames < maxFrames && !level.checkFinished()) {
+            // The level's clock advances at the start of a tick, so feed the upcoming frame's input
+            script.fill(level.getClock().getCurrFrame() + 1, input);
+            level.tick(input);
+            frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * Replays a level's input log until the level is finished or the frame limit is reached.
+     *
+     * @param level     the level to simulate, seeded with the log's seed.
+     * @param log       the input log to replay.
+     * @param maxFrames the maximum number of frames to simulate.
+     * @return the number of frames simulated.
+     */
+    public static int run(Level level, InputLog log, int maxFrames) {
+        TickInput input = new TickInput();
+        log.rewind();
+        int frames = 0;
+        while (frames < maxFrames && !level.checkFinished()) {
+            log.fill(level.getClock().getCurrFrame() + 1, input);
+            level.tick(input);
+            frames++;
+        }
+        return frames;
+    }
+}
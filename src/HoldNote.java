@@ -1,13 +1,11 @@
-import bagel.*;
-
-import java.util.ArrayList;
+import bagel.Keys;
 
 /**
  * Represents a hold note in the game, which can be held for a period of time to score points.
  */
 public class HoldNote extends Note {
-    /** Image representing the hold note. */
-    private final Image image;
+    /** Path to the image representing the hold note. */
+    private final String imagePath;
 
     /** Offset used to determine the bottom height of the hold note. */
     private static final int HEIGHT_OFFSET = 82;
@@ -18,6 +16,9 @@ public class HoldNote extends Note {
     /** Starting y-coordinate of the hold note. */
     private static final int START_Y = 24;
 
+    /** Bit of a saved state set if the hold has started. */
+    private static final int HOLD_STARTED_BIT = SUBCLASS_BIT;
+
     /**
      * Constructs a new HoldNote with the given direction and appearance frame.
      *
@@ -26,7 +27,7 @@ public class HoldNote extends Note {
      */
     public HoldNote(String dir, int appearanceFrame) {
         super(appearanceFrame);
-        image = new Image("res/holdNote" + dir + ".png");
+        imagePath = "res/holdNote" + dir + ".png";
         setY(START_Y);
     }
 
@@ -37,20 +38,52 @@ public class HoldNote extends Note {
         holdStarted = true;
     }
 
+    /**
+     * Clears the hold, for when the note is rewound by seeking.
+     */
+    @Override
+    protected void resetState() {
+        holdStarted = false;
+    }
+
+    /**
+     * Saves the state of the note, including whether the hold has started.
+     *
+     * @return the state as a set of bits.
+     */
+    @Override
+    public int saveState() {
+        return super.saveState() | (holdStarted ? HOLD_STARTED_BIT : 0);
+    }
+
+    /**
+     * Restores the state of the note, including whether the hold has started.
+     *
+     * @param clock the clock of the level the note belongs to, already restored.
+     * @param state the saved state.
+     */
+    @Override
+    public void restoreState(GameClock clock, int state) {
+        super.restoreState(clock, state);
+        holdStarted = (state & HOLD_STARTED_BIT) != 0;
+    }
+
     /**
      * Evaluates the score based on the hold note's interaction with the given input.
      *
      * @param input the user's input.
      * @param accuracy the accuracy class used to evaluate the score.
+     * @param clock the clock of the level the note belongs to.
      * @param targetHeight the target height to evaluate the score against.
      * @param relevantKey the key related to this note's column.
-     * @param notes the list of notes in the current lane.
+     * @param lane the lane the note belongs to.
      * @return the score achieved for this interaction.
      */
     @Override
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes) {
+    public int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane) {
         if (isActive() && !holdStarted) {
-            int score = accuracy.evaluateScore(getBottomHeight(), targetHeight, input.wasPressed(relevantKey));
+            double offset = getHitOffset(input.getPressTime(relevantKey), clock, getBottomHeight(), targetHeight);
+            int score = accuracy.evaluateScore(offset, getBottomHeight(), input.wasPressed(relevantKey));
 
             if (score == Accuracy.MISS_SCORE) {
                 deactivate();
@@ -60,7 +93,8 @@ public class HoldNote extends Note {
                 return score;
             }
         } else if (isActive() && holdStarted) {
-            int score = accuracy.evaluateScore(getTopHeight(), targetHeight, input.wasReleased(relevantKey));
+            double offset = getHitOffset(input.getReleaseTime(relevantKey), clock, getTopHeight(), targetHeight);
+            int score = accuracy.evaluateScore(offset, getTopHeight(), input.wasReleased(relevantKey));
 
             if (score != Accuracy.NOT_SCORED) {
                 deactivate();
@@ -90,14 +124,26 @@ public class HoldNote extends Note {
     private int getTopHeight() {return getY() - HEIGHT_OFFSET;}
 
     /**
-     * Draws the hold note on the screen at the given x-coordinate.
+     * Retrieves the path to the image representing the note.
+     *
+     * @return the path to the image file.
+     */
+    @Override
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Queues the hold note to be drawn at the given x-coordinate if it is active.
      *
-     * @param x the x-coordinate to draw the note at.
+     * @param x     the x-coordinate to draw the note at.
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
      */
     @Override
-    public void draw(int x) {
+    public void draw(int x, double alpha, RenderQueue queue) {
         if (isActive()) {
-            image.draw(x, getY());
+            queue.draw(imagePath, x, getDrawY(alpha), RenderQueue.NOTE_LAYER);
         }
     }
 }
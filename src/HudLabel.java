@@ -0,0 +1,144 @@
+import bagel.Font;
+
+/**
+ * A line of text on the heads-up display that keeps its string and width between frames and
+ * only builds or measures them again when its text or value changes.
+ * A label showing a number, such as the score, builds its string from a fixed prefix and the
+ * value, so a frame on which the value is unchanged neither concatenates nor measures anything.
+ * The font is fetched from {@link Assets} on first use, so labels can be made without a window.
+ */
+public class HudLabel {
+    /** Path to the label's font file. */
+    private final String fontFile;
+
+    /** Size of the label's font. */
+    private final int size;
+
+    /** Text placed before the value of a numeric label. */
+    private final String prefix;
+
+    /** Font the label is drawn in, fetched on first use. */
+    private Font font = null;
+
+    /** Text of the label, or null if it has none. */
+    private String text = null;
+
+    /** Value shown by a numeric label, valid only while its text was built from it. */
+    private int value = 0;
+
+    /** Whether the text was built from the value. */
+    private boolean showsValue = false;
+
+    /** Width of the text in the label's font, or a negative number if not yet measured. */
+    private double width = -1;
+
+    /**
+     * Constructs a label showing text set with {@link #setText(String)}.
+     *
+     * @param fontFile the path to the font file.
+     * @param size     the size of the font.
+     */
+    public HudLabel(String fontFile, int size) {
+        this(fontFile, size, "");
+    }
+
+    /**
+     * Constructs a label showing a value set with {@link #setValue(int)} after a prefix.
+     *
+     * @param fontFile the path to the font file.
+     * @param size     the size of the font.
+     * @param prefix   the text placed before the value.
+     */
+    public HudLabel(String fontFile, int size, String prefix) {
+        this.fontFile = fontFile;
+        this.size = size;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Sets the text of the label, keeping the old width if the text is unchanged.
+     *
+     * @param text the text to show, or null to show nothing.
+     */
+    public void setText(String text) {
+        if (showsValue || (text == null ? this.text != null : !text.equals(this.text))) {
+            this.text = text;
+            showsValue = false;
+            width = -1;
+        }
+    }
+
+    /**
+     * Sets the value shown after the label's prefix, building the text only if it changed.
+     *
+     * @param value the value to show.
+     */
+    public void setValue(int value) {
+        if (!showsValue || value != this.value) {
+            this.value = value;
+            text = prefix + value;
+            showsValue = true;
+            width = -1;
+        }
+    }
+
+    /**
+     * Retrieves the text of the label.
+     *
+     * @return the text, or null if the label has none.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Retrieves the width of the label's text, measuring it only after the text changes.
+     *
+     * @return the width of the text, or 0 if the label has none.
+     */
+    public double getWidth() {
+        if (text == null) {
+            return 0;
+        }
+        if (width < 0) {
+            width = getFont().getWidth(text);
+        }
+        return width;
+    }
+
+    /**
+     * Draws the label with the left of its baseline at the given position.
+     *
+     * @param x the x-coordinate of the left of the text.
+     * @param y the y-coordinate of the baseline.
+     */
+    public void draw(double x, double y) {
+        if (text != null) {
+            getFont().drawString(text, x, y);
+        }
+    }
+
+    /**
+     * Draws the label centred horizontally on the given position.
+     *
+     * @param centreX the x-coordinate of the centre of the text.
+     * @param y       the y-coordinate of the baseline.
+     */
+    public void drawCentred(double centreX, double y) {
+        if (text != null) {
+            draw(centreX - getWidth() / 2, y);
+        }
+    }
+
+    /**
+     * Retrieves the label's font, fetching it from {@link Assets} on first use.
+     *
+     * @return the font.
+     */
+    private Font getFont() {
+        if (font == null) {
+            font = Assets.getFont(fontFile, size);
+        }
+        return font;
+    }
+}
@@ -0,0 +1,158 @@
+import bagel.Input;
+import bagel.Keys;
+
+import java.util.Arrays;
+
+/**
+ * Queues key presses and releases stamped with the song time at which they happened, until the
+ * simulation tick covering that time consumes them.
+ * Events are captured once per rendered frame, however many ticks that frame runs, and each tick
+ * only takes the events up to its own time, so a press is judged against the notes as they were
+ * when it happened rather than when the next tick happened to run.
+ */
+public class InputEventQueue {
+    /** Initial capacity of the event arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Keys of the queued events, oldest first from the head. */
+    private Keys[] keys = new Keys[INITIAL_CAPACITY];
+
+    /** Whether each queued event is a press rather than a release. */
+    private boolean[] presses = new boolean[INITIAL_CAPACITY];
+
+    /** Song times of the queued events, in nanoseconds. */
+    private long[] times = new long[INITIAL_CAPACITY];
+
+    /** System times at which the queued events were polled, in nanoseconds. */
+    private long[] polledAt = new long[INITIAL_CAPACITY];
+
+    /** Index of the oldest queued event. */
+    private int head = 0;
+
+    /** Number of queued events. */
+    private int size = 0;
+
+    /** Song time at which input was last captured, in nanoseconds. */
+    private long lastCapture = 0;
+
+    /**
+     * Queues the presses and releases polled from bagel for the current frame.
+     * Key events only reach the game when the window is polled, so one polled this frame
+     * happened at some point since the last capture; it is stamped halfway between the two.
+     *
+     * @param input the bagel input for the current frame.
+     * @param now   the current song time, in nanoseconds.
+     */
+    public void capture(Input input, long now) {
+        long time = lastCapture + (now - lastCapture) / 2;
+        long polled = System.nanoTime();
+        for (Keys key : TickInput.TRACKED_KEYS) {
+            if (input.wasPressed(key)) {
+                add(key, true, time, polled);
+            }
+            if (input.wasReleased(key)) {
+                add(key, false, time, polled);
+            }
+        }
+        lastCapture = now;
+    }
+
+    /**
+     * Restarts capturing from the given song time, so that the first events captured are not
+     * stamped as though they happened during a pause.
+     *
+     * @param now the current song time, in nanoseconds.
+     */
+    public void resume(long now) {
+        lastCapture = now;
+    }
+
+    /**
+     * Adds an event to the back of the queue.
+     *
+     * @param key    the key pressed or released.
+     * @param press  true for a press, false for a release.
+     * @param time   the song time of the event, in nanoseconds.
+     * @param polled the system time at which the event was polled, in nanoseconds.
+     */
+    public void add(Keys key, boolean press, long time, long polled) {
+        if (size == keys.length) {
+            grow();
+        }
+        int tail = (head + size) % keys.length;
+        keys[tail] = key;
+        presses[tail] = press;
+        times[tail] = time;
+        polledAt[tail] = polled;
+        size++;
+    }
+
+    /**
+     * Moves the queued events that happened up to the given song time into a tick input,
+     * replacing its contents. Later events stay queued for later ticks.
+     *
+     * @param until the song time of the tick being run, in nanoseconds.
+     * @param input the tick input to fill.
+     * @return the system time at which the earliest event moved was polled, in nanoseconds,
+     *         or -1 if no events were moved.
+     */
+    public long drain(long until, TickInput input) {
+        input.clear();
+        long earliest = -1;
+        while (size > 0 && times[head] <= until) {
+            if (earliest < 0 || polledAt[head] < earliest) {
+                earliest = polledAt[head];
+            }
+            if (presses[head]) {
+                input.press(keys[head], times[head]);
+            } else {
+                input.release(keys[head], times[head]);
+            }
+            keys[head] = null;
+            head = (head + 1) % keys.length;
+            size--;
+        }
+        return earliest;
+    }
+
+    /**
+     * Discards every queued event.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of queued events.
+     *
+     * @return the number of events not yet consumed by a tick.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity of the queue, moving the events to the start of the new arrays.
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+        Keys[] newKeys = new Keys[capacity];
+        boolean[] newPresses = new boolean[capacity];
+        long[] newTimes = new long[capacity];
+        long[] newPolledAt = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            int from = (head + i) % keys.length;
+            newKeys[i] = keys[from];
+            newPresses[i] = presses[from];
+            newTimes[i] = times[from];
+            newPolledAt[i] = polledAt[from];
+        }
+        keys = newKeys;
+        presses = newPresses;
+        times = newTimes;
+        polledAt = newPolledAt;
+        head = 0;
+    }
+}
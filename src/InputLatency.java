@@ -0,0 +1,153 @@
+import java.io.PrintStream;
+
+/**
+ * Measures how long key presses take to be judged and shown, split into stages so that a
+ * slowdown can be traced to input polling, the simulation or rendering:
+ * <ul>
+ *     <li>input: from the frame that polled the key event to the start of the tick consuming it,
+ *     including any wait for the tick's song time to come round;</li>
+ *     <li>simulation: from the start of that tick to the end of it, having judged the event;</li>
+ *     <li>render: from the end of that tick until the frame showing the judgement has been
+ *     presented, which is taken as when the next frame starts;</li>
+ *     <li>total: from the frame that polled the key event to the frame showing its judgement.</li>
+ * </ul>
+ * Every time is read from {@link System#nanoTime()}. Events consumed by a tick that judges
+ * nothing, such as presses with no note near the target, are not measured beyond the input stage.
+ */
+public class InputLatency {
+    /** System property that, when set to true, prints the latencies whenever a level is left. */
+    public static final String REPORT_PROPERTY = "shadowdance.latency";
+
+    /** Latency from polling key events to the tick that consumes them. */
+    private final LatencyHistogram input = new LatencyHistogram();
+
+    /** Latency from the start of a tick consuming key events to its judgement of them. */
+    private final LatencyHistogram simulation = new LatencyHistogram();
+
+    /** Latency from judging key events to presenting the frame that shows the judgement. */
+    private final LatencyHistogram render = new LatencyHistogram();
+
+    /** Latency from polling key events to presenting the frame that shows their judgement. */
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    /** System time at which the events consumed by the running tick were polled, or -1. */
+    private long tickPolledAt = -1;
+
+    /** System time at which the running tick started, in nanoseconds. */
+    private long tickStartedAt;
+
+    /** System time at which the events judged but not yet shown were polled, or -1. */
+    private long judgedPolledAt = -1;
+
+    /** System time at which the events not yet shown were judged, in nanoseconds. */
+    private long judgedAt;
+
+    /**
+     * Notes that a tick is starting.
+     *
+     * @param polledAt the system time at which the earliest key event the tick consumes was
+     *                 polled, or -1 if it consumes none.
+     * @param now      the current system time in nanoseconds.
+     */
+    public void tickStarted(long polledAt, long now) {
+        tickPolledAt = polledAt;
+        tickStartedAt = now;
+        if (polledAt >= 0) {
+            input.record(now - polledAt);
+        }
+    }
+
+    /**
+     * Notes that a tick has ended.
+     *
+     * @param judged true if the tick judged a key event, false otherwise.
+     * @param now    the current system time in nanoseconds.
+     */
+    public void tickEnded(boolean judged, long now) {
+        if (tickPolledAt >= 0 && judged) {
+            simulation.record(now - tickStartedAt);
+            if (judgedPolledAt < 0) {
+                judgedPolledAt = tickPolledAt;
+                judgedAt = now;
+            }
+        }
+        tickPolledAt = -1;
+    }
+
+    /**
+     * Notes that the frame drawn last has been presented, showing any judgements made before it.
+     *
+     * @param now the current system time in nanoseconds.
+     */
+    public void framePresented(long now) {
+        if (judgedPolledAt >= 0) {
+            render.record(now - judgedAt);
+            total.record(now - judgedPolledAt);
+            judgedPolledAt = -1;
+        }
+    }
+
+    /**
+     * Retrieves the latencies from polling key events to the ticks consuming them.
+     *
+     * @return the histogram of input latencies.
+     */
+    public LatencyHistogram getInput() {
+        return input;
+    }
+
+    /**
+     * Retrieves the latencies from the start of ticks consuming key events to their judgement.
+     *
+     * @return the histogram of simulation latencies.
+     */
+    public LatencyHistogram getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Retrieves the latencies from judging key events to presenting the frame showing them.
+     *
+     * @return the histogram of render latencies.
+     */
+    public LatencyHistogram getRender() {
+        return render;
+    }
+
+    /**
+     * Retrieves the latencies from polling key events to presenting the frame showing them.
+     *
+     * @return the histogram of end-to-end latencies.
+     */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Prints the percentiles of every stage, if any key event has been measured.
+     *
+     * @param out the stream to print to.
+     */
+    public void report(PrintStream out) {
+        if (input.getCount() == 0) {
+            return;
+        }
+        out.println("Input latency:");
+        out.println("  input       " + input.summary());
+        out.println("  simulation  " + simulation.summary());
+        out.println("  render      " + render.summary());
+        out.println("  total       " + total.summary());
+    }
+
+    /**
+     * Discards every latency measured.
+     */
+    public void reset() {
+        input.reset();
+        simulation.reset();
+        render.reset();
+        total.reset();
+        tickPolledAt = -1;
+        judgedPolledAt = -1;
+    }
+}
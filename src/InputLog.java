@@ -0,0 +1,444 @@
+import bagel.Keys;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A compact record of the input consumed by each tick of a session, which replays it exactly.
+ * Together with the level number, a hash of the chart and the seed for the level's random
+ * numbers, the input decides every tick, so a replay reaches the same score bit for bit.
+ * <p>
+ * Values in the header are big-endian: the magic number, format version, level number, chart
+ * hash, seed, and the length and CRC-32 checksum of the events. Each event is then the number
+ * of ticks since the previous event as a varint, a one-byte code, and for key events how long
+ * before its tick the key event happened, in nanoseconds, as a zigzag varint. A key code is
+ * twice the key's index in {@link TickInput#TRACKED_KEYS}, plus one for a release. The log ends
+ * with an end code, the ticks since the previous event and the final score.
+ */
+public class InputLog {
+    /** Extension of input log files. */
+    public static final String EXTENSION = ".replay";
+
+    /** Magic number at the start of every input log, "SDRL" in ASCII. */
+    public static final int MAGIC = 0x5344524C;
+
+    /** Version of the input log format. */
+    public static final short VERSION = 1;
+
+    /** Code of an event pausing the level. */
+    private static final int PAUSE = 0x40;
+
+    /** Code of an event resuming the level. */
+    private static final int RESUME = 0x41;
+
+    /** Code ending the log. */
+    private static final int END = 0x7F;
+
+    /** Initial capacity of the event buffer, in bytes. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Number of the level played. */
+    private final int levelNumber;
+
+    /** Hash of the level's chart, as given by {@link Level#getChartHash()}. */
+    private final long chartHash;
+
+    /** Seed for the level's random numbers. */
+    private final long seed;
+
+    /** Encoded events. */
+    private byte[] data;
+
+    /** Number of bytes of encoded events. */
+    private int length = 0;
+
+    /** Tick of the last event written or read. */
+    private int lastTick = 0;
+
+    /** Whether the end of the log has been written or read. */
+    private boolean ended = false;
+
+    /** Tick on which the session ended, once the log has ended. */
+    private int finalTick = 0;
+
+    /** Score the session ended with, once the log has ended. */
+    private int finalScore = 0;
+
+    /** Index of the next byte to decode when replaying. */
+    private int cursor = 0;
+
+    /** Tick of the next event to replay, or -1 if it has not been decoded. */
+    private int nextTick = -1;
+
+    /**
+     * Constructs an empty log for a session of the given level.
+     *
+     * @param levelNumber the number of the level played.
+     * @param chartHash   the hash of the level's chart.
+     * @param seed        the seed for the level's random numbers.
+     */
+    public InputLog(int levelNumber, long chartHash, long seed) {
+        this(levelNumber, chartHash, seed, new byte[INITIAL_CAPACITY]);
+    }
+
+    /**
+     * Constructs a log holding already encoded events.
+     *
+     * @param levelNumber the number of the level played.
+     * @param chartHash   the hash of the level's chart.
+     * @param seed        the seed for the level's random numbers.
+     * @param data        the encoded events.
+     */
+    private InputLog(int levelNumber, long chartHash, long seed, byte[] data) {
+        this.levelNumber = levelNumber;
+        this.chartHash = chartHash;
+        this.seed = seed;
+        this.data = data;
+    }
+
+    /**
+     * Records the key presses and releases consumed by a tick.
+     *
+     * @param tick  the number of the tick.
+     * @param input the input the tick consumed.
+     */
+    public void record(int tick, TickInput input) {
+        long tickTime = GameClock.timeOf(tick);
+        for (int i = 0; i < TickInput.TRACKED_KEYS.length; i++) {
+            Keys key = TickInput.TRACKED_KEYS[i];
+            if (input.wasPressed(key)) {
+                writeEvent(tick, i * 2);
+                writeVarint(zigzag(tickTime - input.getPressTime(key)));
+            }
+            if (input.wasReleased(key)) {
+                writeEvent(tick, i * 2 + 1);
+                writeVarint(zigzag(tickTime - input.getReleaseTime(key)));
+            }
+        }
+    }
+
+    /**
+     * Records the level being paused after the given tick. Pauses do not change the simulation,
+     * but show where the player stopped.
+     *
+     * @param tick the number of the last tick before the pause.
+     */
+    public void recordPause(int tick) {
+        writeEvent(tick, PAUSE);
+    }
+
+    /**
+     * Records the level being resumed after a pause.
+     *
+     * @param tick the number of the last tick before the pause.
+     */
+    public void recordResume(int tick) {
+        writeEvent(tick, RESUME);
+    }
+
+    /**
+     * Ends the log with the tick and score the session ended on.
+     *
+     * @param tick  the number of the last tick run.
+     * @param score the final score.
+     */
+    public void finish(int tick, int score) {
+        if (ended) {
+            return;
+        }
+        writeEvent(tick, END);
+        writeVarint(zigzag(score));
+        ended = true;
+        finalTick = tick;
+        finalScore = score;
+    }
+
+    /**
+     * Writes the log to a file.
+     *
+     * @param file the path of the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(String file) throws IOException {
+        File parent = new File(file).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(levelNumber);
+            out.writeLong(chartHash);
+            out.writeLong(seed);
+            out.writeInt(length);
+            out.writeInt((int) crc.getValue());
+            out.write(data, 0, length);
+        }
+    }
+
+    /**
+     * Reads a log from a file and checks that it is complete.
+     *
+     * @param file the path of the file to read.
+     * @return the log, rewound to its start.
+     * @throws IOException if the file cannot be read or is not a valid, complete input log.
+     */
+    public static InputLog read(String file) throws IOException {
+        InputLog log;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + ": not an input log");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException(file + ": unsupported input log version " + version);
+            }
+            int levelNumber = in.readInt();
+            long chartHash = in.readLong();
+            long seed = in.readLong();
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0) {
+                throw new IOException(file + ": corrupt input log, negative length");
+            }
+            byte[] data = new byte[length];
+            in.readFully(data);
+
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException(file + ": corrupt input log, checksum mismatch");
+            }
+            log = new InputLog(levelNumber, chartHash, seed, data);
+            log.length = length;
+        } catch (EOFException e) {
+            throw new IOException(file + ": truncated input log", e);
+        }
+        log.scan(file);
+        return log;
+    }
+
+    /**
+     * Decodes every event once to find the end of the log, checking that the events are valid.
+     *
+     * @param file the path of the file read, for error messages.
+     * @throws IOException if the events are malformed or the log has no end.
+     */
+    private void scan(String file) throws IOException {
+        rewind();
+        try {
+            while (!ended) {
+                int code = readEvent();
+                if (code == END) {
+                    finalTick = lastTick;
+                    finalScore = (int) unzigzag(readVarint());
+                    ended = true;
+                } else if (code < TickInput.TRACKED_KEYS.length * 2) {
+                    readVarint();
+                } else if (code != PAUSE && code != RESUME) {
+                    throw new IOException(file + ": unknown event code " + code + " at byte " + (cursor - 1));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException(file + ": input log ends without an end event", e);
+        }
+        rewind();
+    }
+
+    /**
+     * Rewinds the log to its first event, ready to be replayed.
+     */
+    public void rewind() {
+        cursor = 0;
+        lastTick = 0;
+        nextTick = -1;
+    }
+
+    /**
+     * Fills the given tick input with the events recorded for the given tick.
+     * Ticks must be requested in ascending order.
+     *
+     * @param tick  the number of the tick being replayed.
+     * @param input the tick input to fill.
+     */
+    public void fill(int tick, TickInput input) {
+        input.clear();
+        long tickTime = GameClock.timeOf(tick);
+        while (cursor < length) {
+            if (nextTick == -1) {
+                int mark = cursor;
+                int delta = (int) readVarint();
+                cursor = mark;
+                nextTick = lastTick + delta;
+            }
+            if (nextTick > tick) {
+                return;
+            }
+            int code = readEvent();
+            nextTick = -1;
+            if (code == END) {
+                cursor = length;
+            } else if (code < TickInput.TRACKED_KEYS.length * 2) {
+                long time = tickTime - unzigzag(readVarint());
+                if (lastTick == tick) {
+                    Keys key = TickInput.TRACKED_KEYS[code / 2];
+                    if (code % 2 == 0) {
+                        input.press(key, time);
+                    } else {
+                        input.release(key, time);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of the level played.
+     *
+     * @return the level number.
+     */
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    /**
+     * Retrieves the hash of the chart the session was played on.
+     *
+     * @return the chart hash.
+     */
+    public long getChartHash() {
+        return chartHash;
+    }
+
+    /**
+     * Retrieves the seed for the level's random numbers.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves the tick on which the session ended.
+     *
+     * @return the number of the last tick run, or 0 if the log has not ended.
+     */
+    public int getFinalTick() {
+        return finalTick;
+    }
+
+    /**
+     * Retrieves the score the session ended with.
+     *
+     * @return the final score, or 0 if the log has not ended.
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Retrieves the size of the encoded events.
+     *
+     * @return the number of bytes of events.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Writes the start of an event: the ticks since the last event and the event's code.
+     *
+     * @param tick the number of the tick of the event.
+     * @param code the code of the event.
+     */
+    private void writeEvent(int tick, int code) {
+        writeVarint(Math.max(tick - lastTick, 0));
+        writeByte(code);
+        lastTick = Math.max(tick, lastTick);
+    }
+
+    /**
+     * Reads the start of an event, advancing the last tick by the ticks since the last event.
+     *
+     * @return the code of the event.
+     */
+    private int readEvent() {
+        lastTick += (int) readVarint();
+        return data[cursor++] & 0xFF;
+    }
+
+    /**
+     * Writes an unsigned value in as few bytes as it needs, seven bits at a time, low bits first,
+     * with the top bit of each byte set if more bytes follow.
+     *
+     * @param value the value to write, treated as unsigned.
+     */
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned value written by {@link #writeVarint(long)}.
+     *
+     * @return the value read.
+     */
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data[cursor++] & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Writes a single byte, growing the buffer as needed.
+     *
+     * @param b the byte to write, in its low eight bits.
+     */
+    private void writeByte(int b) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[length++] = (byte) b;
+    }
+
+    /**
+     * Maps a signed value to an unsigned one so that values near zero stay small as varints.
+     *
+     * @param value the signed value.
+     * @return the zigzag-encoded value.
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}.
+     *
+     * @param value the zigzag-encoded value.
+     * @return the signed value.
+     */
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -1,14 +1,16 @@
-import bagel.Image;
-import bagel.Input;
 import bagel.Keys;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a lane in the game where notes fall down.
+ * Notes are kept sorted by appearance frame, and each frame only the live window of notes
+ * is touched: those that have appeared and are not yet completed. Per-frame cost therefore
+ * grows with the number of notes on screen rather than the length of the chart.
  */
 public class Lane {
-    /** Height of the lane. */
-    private static final int HEIGHT = 384;
+    /** Y-coordinate of the centre of the lane's image. */
+    public static final int HEIGHT = 384;
 
     /** Target height for scoring. */
     private static final int TARGET_HEIGHT = 657;
@@ -16,10 +18,10 @@ public class Lane {
     /** Type of the lane, which can be "Left", "Right", etc. */
     private final String type;
 
-    /** Image representing the lane. */
-    private final Image image;
+    /** Path to the image representing the lane. */
+    private final String imagePath;
 
-    /** List of notes in the lane. */
+    /** List of notes in the lane, sorted by appearance frame. */
     private final ArrayList<Note> notes = new ArrayList<>();
 
     /** Key associated with this lane. */
@@ -28,13 +30,34 @@ public class Lane {
     /** Location of the lane on screen. */
     private final int location;
 
-    /** Index of the current note to be processed. */
+    /** Index of the current note to be processed. All notes before it are completed. */
     private int currNote = 0;
 
+    /** Index of the next note to appear. All notes from it onwards have not yet appeared. */
+    private int nextNote = 0;
+
+    /** Counts of the notes in the lane that are completed and remaining. */
+    private final CompletionCounter completion = new CompletionCounter();
+
+    /**
+     * Returns the list of all notes in this lane, sorted by appearance frame.
+     *
+     * @return the notes in this lane.
+     */
     public ArrayList<Note> getNotes() {
         return notes;
     }
 
+    /**
+     * Returns the live window of this lane: the notes from the current note up to the last
+     * note that has appeared. Notes in the window may already have been completed out of order.
+     *
+     * @return a view of the live notes in this lane.
+     */
+    public List<Note> getLiveNotes() {
+        return notes.subList(currNote, nextNote);
+    }
+
     /**
      * Constructs a new lane with the given direction and location.
      *
@@ -44,7 +67,7 @@ public class Lane {
     public Lane(String dir, int location) {
         this.type = dir;
         this.location = location;
-        image = new Image("res/lane" + dir + ".png");
+        imagePath = "res/lane" + dir + ".png";
         switch (dir) {
             case "Left":
                 relevantKey = Keys.LEFT;
@@ -65,56 +88,184 @@ public class Lane {
     }
 
     /**
-     * Returns the list of notes in this lane.
+     * Returns the location of the lane on screen.
      *
-     * @return the notes in this lane.
+     * @return the location of the lane.
      */
     public int getLocation() {
         return location;
     }
 
     /**
-     * Returns the location of the lane on screen.
+     * Returns the type of the lane.
      *
-     * @return the location of the lane.
+     * @return the type of the lane.
      */
     public String getType() {
         return type;
     }
 
     /**
-     * Updates all the notes in the lane based on user input.
+     * Brings the notes appearing this frame into play and judges the first live note against
+     * the user's input. Notes are not moved, since they work out their positions from the clock.
+     * Does not draw anything, so that the lane can be simulated without a window.
      *
-     * @param input the user's input.
+     * @param input the user's input for this tick.
      * @param accuracy the accuracy class used for score evaluation.
+     * @param clock the clock of the level the lane belongs to.
      * @return the score achieved for this update.
      */
-    public int update(Input input, Accuracy accuracy) {
-        draw();
+    public int update(TickInput input, Accuracy accuracy, GameClock clock) {
+        // Notes appearing this frame join the live window and start moving from the next frame
+        while (nextNote < notes.size() && notes.get(nextNote).getAppearanceFrame() <= clock.getCurrFrame()) {
+            notes.get(nextNote).activate(clock);
+            nextNote++;
+        }
+
+        int score = Accuracy.NOT_SCORED;
+        if (currNote < nextNote) {
+            score = notes.get(currNote).checkScore(input, accuracy, clock, TARGET_HEIGHT, relevantKey, this);
+        }
 
-        for (Note note : notes) {
-            note.update();
+        // Skip past notes completed by scoring, bombs or enemies
+        while (currNote < nextNote && notes.get(currNote).isCompleted()) {
+            currNote++;
         }
 
-        if (currNote < notes.size()) {
-            int score = notes.get(currNote).checkScore(input, accuracy, TARGET_HEIGHT, relevantKey, notes);
-            if (notes.get(currNote).isCompleted()) {
-                currNote++;
-                return score;
+        return score;
+    }
+
+    /**
+     * Moves the lane to the clock's current frame, as though it had been played up to it with
+     * every note passed over by the seek neither hit nor missed.
+     * The notes are sorted by appearance frame, so the live window is found by binary search and
+     * only the notes in it are restored. Notes after it are restored as they join it.
+     *
+     * @param clock the clock of the level the lane belongs to, already moved to the new frame.
+     */
+    public void seek(GameClock clock) {
+        int frame = clock.getCurrFrame();
+        int end = frame > 0 ? firstAppearingAfter(frame) : 0;
+        // Notes that have scrolled further than the target height are past it wherever they began
+        int start = firstScrolledWithin(end, clock, clock.getScrollDistance(frame) - TARGET_HEIGHT);
+
+        int skipped = 0;
+        for (int i = start; i < end; i++) {
+            Note note = notes.get(i);
+            note.rewind(clock);
+            if (note.getY() > TARGET_HEIGHT) {
+                note.skip();
+                skipped++;
             }
-            return score;
         }
 
-        return Accuracy.NOT_SCORED;
+        currNote = start;
+        nextNote = end;
+        while (currNote < nextNote && notes.get(currNote).isCompleted()) {
+            currNote++;
+        }
+        completion.setCompleted(start + skipped);
+    }
+
+    /**
+     * Saves the live window of the lane and the state of the notes in it, for a
+     * {@link LevelSnapshot}. Notes before the window are all completed and notes after it have
+     * not appeared, so nothing else needs saving.
+     *
+     * @return the lane's saved state.
+     */
+    public LevelSnapshot.LaneState saveState() {
+        byte[] states = new byte[nextNote - currNote];
+        for (int i = currNote; i < nextNote; i++) {
+            states[i - currNote] = (byte) notes.get(i).saveState();
+        }
+        return new LevelSnapshot.LaneState(currNote, completion.getCompleted(), states);
+    }
+
+    /**
+     * Restores a state saved by {@link #saveState()}. Only the notes in the saved window are
+     * restored; notes after it are reset as they join it, as after a seek.
+     *
+     * @param state the saved state.
+     * @param clock the clock of the level the lane belongs to, already restored.
+     */
+    public void restoreState(LevelSnapshot.LaneState state, GameClock clock) {
+        currNote = state.getCurrNote();
+        nextNote = currNote + state.getNoteCount();
+        for (int i = currNote; i < nextNote; i++) {
+            notes.get(i).restoreState(clock, state.getNoteState(i - currNote));
+        }
+        completion.setCompleted(state.getCompleted());
     }
 
     /**
-     * Adds a new note to the lane.
+     * Finds the first note appearing after the given frame.
+     *
+     * @param frame the frame number.
+     * @return the index of the first note appearing after the frame, or the number of notes.
+     */
+    private int firstAppearingAfter(int frame) {
+        int low = 0;
+        int high = notes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (notes.get(mid).getAppearanceFrame() <= frame) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first note that has not yet scrolled past a distance, among those that have
+     * appeared. Notes scroll further the earlier they appear, so the notes before it all have.
+     *
+     * @param end      the number of notes that have appeared.
+     * @param clock    the clock of the level the lane belongs to.
+     * @param distance the scroll distance, in pixels, that notes appearing before it was reached
+     *                 have passed the target by.
+     * @return the index of the first note that may not have passed, or {@code end} if none.
+     */
+    private int firstScrolledWithin(int end, GameClock clock, long distance) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int appeared = Math.max(notes.get(mid).getAppearanceFrame(), 1);
+            if (clock.getScrollDistance(appeared) < distance) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds a new note to the lane, keeping the notes sorted by appearance frame.
+     * Notes with equal appearance frames keep the order in which they were added.
      *
      * @param n the note to add.
      */
     public void addNote(Note n) {
-        notes.add(n);
+        int index = notes.size();
+        while (index > 0 && notes.get(index - 1).getAppearanceFrame() > n.getAppearanceFrame()) {
+            index--;
+        }
+        notes.add(index, n);
+        n.setCompletion(completion);
+    }
+
+    /**
+     * Removes a note from play, so that it is neither drawn nor scored.
+     * The note stays in the lane's list so that the live window remains valid.
+     *
+     * @param note the note to remove.
+     */
+    public void removeNote(Note note) {
+        note.deactivate();
     }
 
     /**
@@ -123,22 +274,48 @@ public class Lane {
      * @return true if all notes are completed, false otherwise.
      */
     public boolean isFinished() {
-        for (Note note : notes) {
-            if (!note.isCompleted()) {
-                return false;
-            }
-        }
-        return true;
+        return completion.isFinished();
+    }
+
+    /**
+     * Returns the counts of the notes in the lane that are completed and remaining.
+     *
+     * @return the completion counter of the lane.
+     */
+    public CompletionCounter getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Retrieves the path to the image representing the lane.
+     *
+     * @return the path to the image file.
+     */
+    public String getImagePath() {
+        return imagePath;
     }
 
     /**
-     * Draws the lane and all its notes on the screen.
+     * Queues the lane and all its notes to be drawn on the screen.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
      */
-    public void draw() {
-        image.draw(location, HEIGHT);
+    public void draw(double alpha, RenderQueue queue) {
+        queue.draw(imagePath, location, HEIGHT, RenderQueue.LANE_LAYER);
+        drawNotes(alpha, queue);
+    }
 
-        for (Note note : notes) {
-            note.draw(location);
+    /**
+     * Queues the notes of the lane to be drawn on the screen, leaving out the lane itself,
+     * for when the lane's image is part of a level's {@link StaticLayer}.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
+     */
+    public void drawNotes(double alpha, RenderQueue queue) {
+        for (int i = currNote; i < nextNote; i++) {
+            notes.get(i).draw(location, alpha, queue);
         }
     }
 }
@@ -0,0 +1,13 @@
+/**
+ * Creates the lanes of one lane type read from a chart.
+ */
+public interface LaneFactory {
+    /**
+     * Creates a lane.
+     *
+     * @param type     the type of the lane.
+     * @param location the on-screen location of the lane.
+     * @return the new lane.
+     */
+    Lane create(String type, int location);
+}
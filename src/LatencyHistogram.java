@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+/**
+ * Counts latency samples in logarithmic buckets, in the style of an HDR histogram, so that
+ * percentiles can be read back cheaply without keeping every sample.
+ * Each power of two is split into equal sub-buckets, so every sample is counted to within about
+ * 1.6% of its value whether it is a microsecond or a second. Recording never allocates.
+ */
+public class LatencyHistogram {
+    /** Number of bits of a sample kept exactly; samples below 2 to this power are exact. */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /** Number of exactly counted samples at the bottom of the range. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Number of sub-buckets each further power of two is split into. */
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Highest power of two tracked; larger samples are counted as the largest trackable. */
+    private static final int MAX_MAGNITUDE = 40;
+
+    /** Number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Number of samples in each bucket. */
+    private final long[] counts = new long[SUB_BUCKET_COUNT + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * HALF_COUNT];
+
+    /** Total number of samples recorded. */
+    private long totalCount = 0;
+
+    /** Largest sample recorded, in nanoseconds. */
+    private long max = 0;
+
+    /**
+     * Records a latency sample. Negative samples are counted as zero.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Retrieves the latency that the given percentage of samples are at or below.
+     *
+     * @param percentile the percentage of samples, from 0 to 100.
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Retrieves the number of samples recorded.
+     *
+     * @return the sample count.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Retrieves the largest sample recorded.
+     *
+     * @return the largest latency in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Discards every sample recorded.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+    }
+
+    /**
+     * Summarises the histogram's median, 99th and 99.9th percentiles in milliseconds.
+     *
+     * @return the summary.
+     */
+    public String summary() {
+        return String.format("p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms (%d samples)",
+                getValueAtPercentile(50) / NANOS_PER_MILLI,
+                getValueAtPercentile(99) / NANOS_PER_MILLI,
+                getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                max / NANOS_PER_MILLI,
+                totalCount);
+    }
+
+    /**
+     * Finds the bucket a sample is counted in.
+     *
+     * @param value the sample, at least zero.
+     * @return the index of its bucket.
+     */
+    private int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) Math.min(value >>> shift, SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (subBucket - HALF_COUNT);
+    }
+
+    /**
+     * Finds the largest sample that would be counted in a bucket.
+     *
+     * @param index the index of the bucket.
+     * @return the largest sample in the bucket.
+     */
+    private long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+        long subBucket = HALF_COUNT + (index - SUB_BUCKET_COUNT) % HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -1,29 +1,49 @@
-import bagel.Font;
 import bagel.Input;
+import bagel.Keys;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Represents a level in the game ShadowDance.
  * Provides basic functionalities and attributes that all levels share.
  * Specific level implementations should extend this class.
+ * The game logic is advanced by {@link #tick(TickInput)}, which never draws, so a level
+ * can be simulated headlessly; drawing the level is left to {@link #draw()}.
  */
 public abstract class Level {
     /** Width of the game window. */
     private final static int WINDOW_WIDTH = 1024;
 
-    /** Font used for level title. */
-    private final Font TITLE_FONT = new Font(ShadowDance.FONT_FILE, TITLE_SIZE);
+    /** Label showing the win or loss message on the ending screen. */
+    private final HudLabel titleLabel = new HudLabel(ShadowDance.FONT_FILE, TITLE_SIZE);
 
     /** Size of the title font. */
     private final static int TITLE_SIZE = 64;
 
-    /** Font used for instructions. */
-    private final Font INSTRUCTION_FONT = new Font(ShadowDance.FONT_FILE, INSTRUCTION_SIZE);
+    /** Label showing the return instructions on the ending screen. */
+    private final HudLabel instructionLabel = new HudLabel(ShadowDance.FONT_FILE, INSTRUCTION_SIZE);
 
     /** Size of the instruction font. */
     private final static int INSTRUCTION_SIZE = 24;
 
+    /** Label showing the score, rebuilt only when the score changes. */
+    private final HudLabel scoreLabel = new HudLabel(ShadowDance.FONT_FILE, SCORE_SIZE, SCORE_PREFIX);
+
+    /** Size of the score font. */
+    private final static int SCORE_SIZE = 30;
+
+    /** Sizes of every font used while the level is played. */
+    private final static int[] FONT_SIZES = {TITLE_SIZE, INSTRUCTION_SIZE, SCORE_SIZE, Accuracy.ACCURACY_SIZE};
+
+    /** Text shown before the score. */
+    private final static String SCORE_PREFIX = "Score ";
+
+    /** X and Y coordinate to display score. */
+    private final static int SCORE_LOCATION = 35;
+
     /** Message displayed when level is cleared. */
     private static final String CLEAR_MESSAGE = "CLEAR!";
 
@@ -36,6 +56,15 @@ public abstract class Level {
     /** Y-coordinate for the return instruction. */
     private final static int RETURN_INSTRUCTION_Y = 500;
 
+    /** Label showing the retry instructions on the ending screen. */
+    private final HudLabel retryLabel = new HudLabel(ShadowDance.FONT_FILE, INSTRUCTION_SIZE);
+
+    /** Instructions to play the level again. */
+    private final static String RETRY_INSTRUCTIONS = "PRESS ENTER TO PLAY AGAIN";
+
+    /** Y-coordinate for the retry instruction. */
+    private final static int RETRY_INSTRUCTION_Y = 550;
+
     /** Y-coordinate for the win/loss message. */
     private final static int WIN_Y = 300;
 
@@ -48,58 +77,815 @@ public abstract class Level {
     /** Score required to win the level. */
     private final int target_score;
 
+    /** Counts of the notes in every lane of the level that are completed and remaining. */
+    private final CompletionCounter completion = new CompletionCounter();
+
+    /** Accuracy tracker for the level. */
+    protected final Accuracy accuracy = new Accuracy();
+
+    /** Clock tracking the frame and scroll speed of the level. */
+    protected final GameClock clock = new GameClock();
+
+    /** File location for the chart of the level. */
+    private final String chartFile;
+
+    /** File location for the track used in the level. */
+    private final String trackFile;
+
+    /** Background and lane art composited into one image, or null to draw them separately. */
+    private StaticLayer staticLayer = null;
+
+    /** Paths of the images to preload, found when preloading starts. */
+    private ArrayList<String> preloadPaths = null;
+
+    /** Number of images and fonts acquired by preloading, images first. */
+    private int preloaded = 0;
+
+    /** Service playing the level's track, set when the level starts. */
+    private AudioService audio;
+
+    /** Identifier of the level's track, matched against the playback positions received. */
+    private int trackId;
+
+    /** Key events captured from bagel and not yet consumed by a tick. */
+    private final InputEventQueue inputEvents = new InputEventQueue();
+
+    /** Input consumed by the tick being run. */
+    private final TickInput tickInput = new TickInput();
+
+    /** Sprite draws of the frame being drawn, submitted together sorted by layer. */
+    private final RenderQueue renderQueue = new RenderQueue(TextureAtlas.getDefault());
+
+    /** Backend the frame's sprite draws are submitted to. */
+    private final RenderBackend renderBackend = new BagelRenderBackend(TextureAtlas.getDefault());
+
+    /** Time taken by key events to be consumed, judged and shown, measured while playing. */
+    private final InputLatency latency = new InputLatency();
+
+    /** Decides how many ticks to run for each rendered frame. */
+    private final FixedTimestep timestep = new FixedTimestep();
+
+    /** Time into the song, following the track, created when the level starts. */
+    private SongClock songClock;
+
+    /** Starting value of a 64-bit FNV-1a hash. */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** Multiplier of a 64-bit FNV-1a hash. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Directory that the input log of every session is saved in. */
+    public static final String REPLAY_DIRECTORY = "replays";
+
+    /** Seed for the level's random numbers, so that a session can be replayed exactly. */
+    private long seed = 0;
+
+    /** Input consumed by every tick since the level started, for replaying the session. */
+    private InputLog inputLog;
+
+    /** Hash of the level's chart, worked out when the level starts. */
+    private long chartHash;
+
+    /** State of the level before its first tick, restored to play it again. */
+    private LevelSnapshot startSnapshot = null;
+
+    /** Whether the level is paused. */
+    private boolean paused = false;
+
+    /** Whether every note of the level has been completed. */
+    private boolean finished = false;
+
+    /** Number of frames skipped by one practice seek, five seconds of song. */
+    private static final int SEEK_FRAMES = 5 * FixedTimestep.TICKS_PER_SECOND;
+
+    /** Number of nanoseconds in a microsecond. */
+    private static final long NANOS_PER_MICRO = 1000;
+
+    /** Whether the session has been seeked, making it practice that is not saved as a replay. */
+    private boolean practice = false;
+
+    /** State of the level when the start of a practice loop was marked, or null if none is. */
+    private LevelSnapshot loopMark = null;
+
+    /** First frame of the practice loop being played, or -1 if none is. */
+    private int loopStart = -1;
+
+    /** Frame on which the practice loop goes back to its start, or -1 if none is played. */
+    private int loopEnd = -1;
+
     /**
      * Constructs a new level with the given target score.
-     * Initializes the level and reads the associated CSV file.
+     * Initializes the level and reads the associated chart file.
      *
      * @param target_score the score required to win the level.
+     * @param chartFile the file location for the chart of the level.
+     * @param trackFile the file location for the track used in the level.
+     * @throws IOException if the chart cannot be read or is malformed.
      */
-    public Level(int target_score) {
+    public Level(int target_score, String chartFile, String trackFile) throws IOException {
         this.target_score = target_score;
-        ShadowDance.started = true;
-        readCsv();
+        this.chartFile = chartFile;
+        this.trackFile = trackFile;
+        loadChart();
     }
 
     /**
-     * Reads the CSV file associated with the level.
-     * Implementation should be provided by the specific level subclass.
+     * Reads the chart file associated with the level.
+     *
+     * @throws IOException if the chart cannot be read or is malformed.
      */
-    public abstract void readCsv();
+    public void loadChart() throws IOException {
+        ChartLoader loader = new ChartLoader(this);
+        registerChartTypes(loader);
+        loader.load(chartFile);
+    }
 
     /**
-     * Resets the game state.
+     * Registers the lane and note types that may appear in the level's chart.
      * Implementation should be provided by the specific level subclass.
+     *
+     * @param loader the loader reading the chart.
      */
-    public abstract void resetGame();
+    protected abstract void registerChartTypes(ChartLoader loader);
 
     /**
-     * Updates the paused state based on user input.
+     * Retrieves the number of the level, as shown on the starting screen.
      * Implementation should be provided by the specific level subclass.
      *
+     * @return the level number.
+     */
+    public abstract int getNumber();
+
+    /**
+     * Sets the seed for the level's random numbers. Must be called before the level starts.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Retrieves the seed for the level's random numbers.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Works out a hash of the level's chart, from the type and location of every lane and the
+     * image and appearance frame of every note, so that a replay can tell whether the chart it
+     * was recorded on has changed. The hash is the same whichever format the chart was read from.
+     *
+     * @return the 64-bit FNV-1a hash of the chart.
+     */
+    public long getChartHash() {
+        long hash = FNV_OFFSET_BASIS;
+        for (Lane lane : lanes) {
+            hash = hashString(hash, lane.getType());
+            hash = hashInt(hash, lane.getLocation());
+            hash = hashInt(hash, lane.getNotes().size());
+            for (Note note : lane.getNotes()) {
+                hash = hashString(hash, note.getImagePath());
+                hash = hashInt(hash, note.getAppearanceFrame());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Adds the characters of a string to an FNV-1a hash.
+     *
+     * @param hash  the hash so far.
+     * @param value the string to add.
+     * @return the new hash.
+     */
+    private static long hashString(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hashInt(hash, value.length());
+    }
+
+    /**
+     * Adds the bytes of an integer to an FNV-1a hash.
+     *
+     * @param hash  the hash so far.
+     * @param value the integer to add.
+     * @return the new hash.
+     */
+    private static long hashInt(long hash, int value) {
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Adds a lane to the level, counting its notes towards the level's completion.
+     *
+     * @param lane the lane to add.
+     */
+    public void addLane(Lane lane) {
+        lanes.add(lane);
+        lane.getCompletion().setParent(completion);
+    }
+
+    /**
+     * Retrieves the paths of every sprite used by the level.
+     *
+     * @return the distinct image paths of the lanes and notes of the level.
+     */
+    public Set<String> getImagePaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for (Lane lane : lanes) {
+            paths.add(lane.getImagePath());
+            for (Note note : lane.getNotes()) {
+                paths.add(note.getImagePath());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Retrieves the paths of every image the level's sprites are drawn from, which are the
+     * atlas pages holding packed sprites and the own images of sprites not packed.
+     *
+     * @return the distinct texture paths of the level.
+     */
+    private ArrayList<String> getTexturePaths() {
+        TextureAtlas atlas = TextureAtlas.getDefault();
+        Set<String> textures = new LinkedHashSet<>();
+        if (staticLayer != null) {
+            textures.add(staticLayer.getPath());
+        }
+        for (String sprite : getImagePaths()) {
+            textures.add(atlas.getTexture(sprite));
+        }
+        return new ArrayList<>(textures);
+    }
+
+    /**
+     * Composites the background and the art of the level's lanes into a {@link StaticLayer}, so
+     * that they are drawn as one image during play. Should be called after the chart is read and
+     * before preloading, off the window's thread. A layer that cannot be composited is reported,
+     * and the background and lanes are then drawn separately.
+     */
+    public void composeStaticLayer() {
+        try {
+            staticLayer = StaticLayer.compose(ShadowDance.BACKGROUND_FILE, lanes);
+        } catch (IOException e) {
+            System.err.println("Cannot composite static layer: " + e.getMessage());
+            staticLayer = null;
+        }
+    }
+
+    /**
+     * Draws the level's static layer, covering the whole window with the background and lanes.
+     *
+     * @return true if the layer was drawn, false if the level has none and the background must
+     *         be drawn instead.
+     */
+    public boolean drawStaticLayer() {
+        if (staticLayer == null) {
+            return false;
+        }
+        staticLayer.draw();
+        return true;
+    }
+
+    /**
+     * Loads every image and font used by the level not yet preloaded, so that nothing is loaded
+     * during play. Must be called from the thread that owns the window.
+     */
+    public void preloadAssets() {
+        while (preloadNextAsset()) {
+            // Keep loading until every asset is acquired
+        }
+    }
+
+    /**
+     * Loads the next image or font used by the level, so that preloading can be spread over
+     * several frames. Must be called from the thread that owns the window.
+     *
+     * @return true if more assets remain to be loaded, false otherwise.
+     */
+    public boolean preloadNextAsset() {
+        if (preloadPaths == null) {
+            preloadPaths = getTexturePaths();
+        }
+        int total = preloadPaths.size() + FONT_SIZES.length;
+        if (preloaded < total) {
+            if (preloaded < preloadPaths.size()) {
+                Assets.acquireImage(preloadPaths.get(preloaded));
+            } else {
+                Assets.acquireFont(ShadowDance.FONT_FILE, FONT_SIZES[preloaded - preloadPaths.size()]);
+            }
+            preloaded++;
+        }
+        return preloaded < total;
+    }
+
+    /**
+     * Releases the images and fonts acquired by preloading.
+     */
+    public void releaseAssets() {
+        for (int i = 0; i < preloaded; i++) {
+            if (i < preloadPaths.size()) {
+                Assets.releaseImage(preloadPaths.get(i));
+            } else {
+                Assets.releaseFont(ShadowDance.FONT_FILE, FONT_SIZES[i - preloadPaths.size()]);
+            }
+        }
+        preloaded = 0;
+        preloadPaths = null;
+    }
+
+    /**
+     * Starts playing the track associated with the level and recording the session's input.
+     *
+     * @param audio the service to play the track on.
+     */
+    public void start(AudioService audio) {
+        chartHash = getChartHash();
+        inputLog = new InputLog(getNumber(), chartHash, seed);
+        startSnapshot = snapshot();
+        this.audio = audio;
+        trackId = audio.play(trackFile);
+        songClock = new SongClock();
+        songClock.resume(System.nanoTime());
+        timestep.reset(songClock.getTime());
+        inputEvents.clear();
+        inputEvents.resume(songClock.getTime());
+    }
+
+    /**
+     * Resets the game state.
+     * This includes clearing lanes, resetting score, and other necessary game attributes.
+     */
+    public void resetGame() {
+        if (audio != null) {
+            audio.stop();
+            audio = null;
+        }
+        if (Boolean.getBoolean(InputLatency.REPORT_PROPERTY)) {
+            latency.report(System.out);
+        }
+        latency.reset();
+        releaseAssets();
+        lanes.clear();
+        completion.reset();
+        score = 0;
+        clock.reset();
+        accuracy.setCurrAccuracy(null);
+        paused = false;
+        finished = false;
+        practice = false;
+        startSnapshot = null;
+        loopMark = null;
+        clearLoop();
+    }
+
+    /**
+     * Moves the level to the given frame, as though it had been played up to it with every
+     * note passed over neither hit nor missed, and moves the track to match. The score is kept.
+     * Each lane finds its live notes by binary search, so seeking takes time in proportion to
+     * the notes on screen rather than to the length of the chart. A seeked session is practice,
+     * and its input log is not saved.
+     *
+     * @param frame the frame to move to, which the next tick follows.
+     */
+    public void seek(int frame) {
+        frame = Math.max(frame, 0);
+        clock.seek(frame);
+        for (Lane lane : lanes) {
+            lane.seek(clock);
+        }
+        seekEntities(frame);
+        accuracy.setCurrAccuracy(null);
+        finished = false;
+        practice = true;
+        moveTrackTo(frame);
+    }
+
+    /**
+     * Moves the song clock, the queue of key events and the track to the given frame, after
+     * the level's state has been moved to it.
+     *
+     * @param frame the frame moved to.
+     */
+    private void moveTrackTo(int frame) {
+        long time = GameClock.timeOf(frame);
+        if (songClock != null) {
+            songClock.seek(time, System.nanoTime());
+            timestep.reset(time);
+        }
+        inputEvents.clear();
+        inputEvents.resume(time);
+        if (audio != null) {
+            trackId = audio.seek(time / NANOS_PER_MICRO);
+        }
+    }
+
+    /**
+     * Saves the live state of the level, so that it can be put back to it with
+     * {@link #restore(LevelSnapshot)}. Takes time in proportion to the notes on screen.
+     *
+     * @return the snapshot of the level's state.
+     */
+    public LevelSnapshot snapshot() {
+        LevelSnapshot snapshot = new LevelSnapshot(clock, score, accuracy);
+        for (Lane lane : lanes) {
+            snapshot.addLane(lane.saveState());
+        }
+        saveEntities(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Puts the level back to a state saved by {@link #snapshot()}, score and all, and moves the
+     * track to match. Nothing is loaded again, and only the notes that were on screen are
+     * restored, so restoring takes time in proportion to them rather than to the length of the
+     * chart. A restored session is practice, and its input log is not saved.
+     *
+     * @param snapshot the saved state, taken from this level.
+     * @throws IllegalArgumentException if the snapshot was taken from a level with other lanes.
+     */
+    public void restore(LevelSnapshot snapshot) {
+        if (snapshot.getLaneCount() != lanes.size()) {
+            throw new IllegalArgumentException("snapshot has " + snapshot.getLaneCount()
+                    + " lanes, level has " + lanes.size());
+        }
+        clock.copyFrom(snapshot.getClock());
+        for (int i = 0; i < lanes.size(); i++) {
+            lanes.get(i).restoreState(snapshot.getLane(i), clock);
+        }
+        restoreEntities(snapshot);
+        accuracy.copyFrom(snapshot.getAccuracy());
+        score = snapshot.getScore();
+        finished = false;
+        practice = true;
+        moveTrackTo(snapshot.getFrame());
+    }
+
+    /**
+     * Plays the level again from the start by restoring its state from before the first tick,
+     * without reading the chart, reopening the track or loading any image again. The new
+     * session is recorded in a fresh input log with the same seed.
+     */
+    public void retry() {
+        if (paused) {
+            paused = false;
+            audio.resume();
+            songClock.resume(System.nanoTime());
+        }
+        restore(startSnapshot);
+        practice = false;
+        loopMark = null;
+        clearLoop();
+        inputLog = new InputLog(getNumber(), chartHash, seed);
+    }
+
+    /**
+     * Saves the state of the level's entities into a snapshot. Levels without entities save
+     * nothing.
+     *
+     * @param snapshot the snapshot being taken.
+     */
+    protected void saveEntities(LevelSnapshot snapshot) {
+    }
+
+    /**
+     * Restores the level's entities from a snapshot. Levels without entities do nothing.
+     *
+     * @param snapshot the snapshot being restored.
+     */
+    protected void restoreEntities(LevelSnapshot snapshot) {
+    }
+
+    /**
+     * Moves the level's entities to the given frame when seeking. Levels without entities do
+     * nothing.
+     *
+     * @param frame the frame being moved to.
+     */
+    protected void seekEntities(int frame) {
+    }
+
+    /**
+     * Plays a section of the level over and over, seeking back to its start each time it
+     * reaches its end.
+     *
+     * @param start the first frame of the section.
+     * @param end   the frame on which to go back to the start, after the start.
+     * @throws IllegalArgumentException if the section is empty.
+     */
+    public void setLoop(int start, int end) {
+        if (start < 0 || end <= start) {
+            throw new IllegalArgumentException("empty loop " + start + "-" + end);
+        }
+        loopStart = start;
+        loopEnd = end;
+    }
+
+    /**
+     * Stops looping a section, so that play carries on past its end.
+     */
+    public void clearLoop() {
+        loopStart = -1;
+        loopEnd = -1;
+    }
+
+    /**
+     * Checks whether the session has been seeked, so is practice rather than a full play.
+     *
+     * @return true if the level has been seeked since it started, false otherwise.
+     */
+    public boolean isPractice() {
+        return practice;
+    }
+
+    /**
+     * Advances the game logic of the level by one frame.
+     * Does not draw anything, so it can be run without a window.
+     *
+     * @param input the input to be consumed by this tick.
+     */
+    public void tick(TickInput input) {
+        clock.tick();
+        for (Lane lane : lanes) {
+            FrameProfiler.begin(FrameProfiler.LANE_UPDATE);
+            score += lane.update(input, accuracy, clock);
+            FrameProfiler.end(this, lane);
+        }
+
+        FrameProfiler.begin(FrameProfiler.ACCURACY_UPDATE);
+        accuracy.update();
+        FrameProfiler.end(this);
+    }
+
+    /**
+     * Updates the paused state based on user input and renders the level.
+     * Nothing moves while paused, so the sprites of the last frame played are submitted again
+     * rather than queued from every lane and entity. Enter plays the level again from the start.
+     *
      * @param input the user's input.
      */
-    public abstract void updatePausedState(Input input);
+    public void updatePausedState(Input input) {
+        latency.framePresented(System.nanoTime());
+        FrameProfiler.begin(FrameProfiler.PAUSED);
+        if (input.wasPressed(Keys.ENTER)) {
+            retry();
+        } else if (input.wasPressed(Keys.TAB)) {
+            paused = false;
+            inputLog.recordResume(clock.getCurrFrame());
+            audio.resume();
+            songClock.resume(System.nanoTime());
+            inputEvents.resume(songClock.getTime());
+        }
+
+        renderQueue.resubmit(renderBackend);
+        drawText();
+        FrameProfiler.end(this);
+    }
 
     /**
-     * Updates the gameplay state based on user input.
-     * Implementation should be provided by the specific level subclass.
+     * Updates the gameplay state based on user input and renders the level.
+     * Runs however many fixed-length ticks are due since the last frame by the song's time,
+     * which may be none on fast displays or several after a slow frame, then draws between the
+     * last two ticks. Following the song keeps the notes in time with the music.
+     * Key events are stamped with the song time and each tick consumes only those up to its
+     * own time, so that they are judged by when they happened. The time each stage takes is
+     * measured, and reported when the level is left.
      *
      * @param input the user's input.
      */
-    public abstract void updateGameplay(Input input);
+    public void updateGameplay(Input input) {
+        latency.framePresented(System.nanoTime());
+        PlaybackPosition position = audio.pollPosition();
+        if (position != null && position.getTrackId() == trackId) {
+            songClock.onPosition(position);
+        }
+        long now = songClock.update(System.nanoTime());
+        inputEvents.capture(input, now);
+        int ticks = timestep.advance(now);
+        for (int i = 0; i < ticks && !checkFinished(); i++) {
+            long polledAt = inputEvents.drain(GameClock.timeOf(clock.getCurrFrame() + 1), tickInput);
+            int judgements = accuracy.getJudgementCount();
+            latency.tickStarted(polledAt, System.nanoTime());
+            inputLog.record(clock.getCurrFrame() + 1, tickInput);
+            tick(tickInput);
+            latency.tickEnded(accuracy.getJudgementCount() != judgements, System.nanoTime());
+            if (loopEnd >= 0 && clock.getCurrFrame() >= loopEnd) {
+                restartLoop();
+                break;
+            }
+        }
+        draw(timestep.getAlpha());
+
+        FrameProfiler.begin(FrameProfiler.CHECK_FINISHED);
+        finished = checkFinished();
+        FrameProfiler.end(this);
+        if (finished) {
+            saveInputLog();
+        }
+
+        if (!finished) {
+            handlePracticeKeys(input);
+        }
+
+        if (input.wasPressed(Keys.TAB) && !finished) {
+            paused = true;
+            inputLog.recordPause(clock.getCurrFrame());
+            songClock.pause(System.nanoTime());
+            audio.pause();
+        }
+    }
 
     /**
-     * Checks if all the lanes in the level are finished.
+     * Goes back to the start of the practice loop. A loop started from a mark restores the
+     * level as it was when marked, so each pass is scored from there; otherwise the level is
+     * seeked to the loop's start.
+     */
+    private void restartLoop() {
+        if (loopMark != null && loopMark.getFrame() == loopStart) {
+            restore(loopMark);
+        } else {
+            seek(loopStart);
+        }
+    }
+
+    /**
+     * Handles the practice keys: F1 marks the start of a loop at the current frame, F2 loops
+     * from the mark to the current frame, F3 stops looping, and F4 and F5 seek five seconds
+     * back and forward.
      *
-     * @return true if all lanes are finished, false otherwise.
+     * @param input the user's input.
      */
-    public boolean checkFinished() {
+    private void handlePracticeKeys(Input input) {
+        int frame = clock.getCurrFrame();
+        if (input.wasPressed(Keys.F1)) {
+            loopMark = snapshot();
+        } else if (input.wasPressed(Keys.F2) && loopMark != null && frame > loopMark.getFrame()) {
+            setLoop(loopMark.getFrame(), frame);
+            restartLoop();
+        } else if (input.wasPressed(Keys.F3)) {
+            clearLoop();
+        } else if (input.wasPressed(Keys.F4)) {
+            seek(frame - SEEK_FRAMES);
+        } else if (input.wasPressed(Keys.F5)) {
+            seek(frame + SEEK_FRAMES);
+        }
+    }
+
+    /**
+     * Ends the session's input log and saves it in {@link #REPLAY_DIRECTORY}, named after the
+     * level and the time it was saved. A log that cannot be saved is reported and dropped, and
+     * practice sessions are not saved, since seeking cannot be replayed.
+     */
+    private void saveInputLog() {
+        if (practice) {
+            return;
+        }
+        inputLog.finish(clock.getCurrFrame(), score);
+        String file = REPLAY_DIRECTORY + "/level" + getNumber() + "-" + System.currentTimeMillis() + InputLog.EXTENSION;
+        try {
+            inputLog.write(file);
+        } catch (IOException e) {
+            System.err.println("Cannot save replay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks if the level is paused.
+     *
+     * @return true if the level is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Checks if the level has been played to the end.
+     *
+     * @return true if every note has been completed, false otherwise.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Draws the lanes, entities, accuracy and score of the level.
+     * The sprites are queued and submitted by layer, in batches of the same texture, and the
+     * text is drawn over them.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     */
+    public void draw(double alpha) {
+        drawSprites(alpha, renderBackend);
+        drawText();
+    }
+
+    /**
+     * Draws the accuracy and score of the level over its sprites.
+     */
+    private void drawText() {
+        accuracy.draw();
+
+        scoreLabel.setValue(score);
+        scoreLabel.draw(SCORE_LOCATION, SCORE_LOCATION);
+    }
+
+    /**
+     * Queues any entities of the level to be drawn on top of its lanes.
+     * Levels without entities draw nothing.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
+     */
+    protected void drawEntities(double alpha, RenderQueue queue) {
+    }
+
+    /**
+     * Queues the sprites of the level's current state and submits them to the given backend,
+     * without drawing any text. Lanes that are part of the static layer are not queued.
+     * A recording backend can check the order of draws without a window.
+     *
+     * @param alpha   how far the time being drawn is between the previous tick and the latest.
+     * @param backend the backend to submit the draws to.
+     */
+    public void drawSprites(double alpha, RenderBackend backend) {
         for (Lane lane : lanes) {
-            if (!lane.isFinished()) {
-                return false;
+            if (staticLayer == null) {
+                lane.draw(alpha, renderQueue);
+            } else {
+                lane.drawNotes(alpha, renderQueue);
             }
         }
-        return true;
+        drawEntities(alpha, renderQueue);
+        renderQueue.flush(backend);
+    }
+
+    /**
+     * Retrieves the latencies measured from key events being polled to their judgement being
+     * shown.
+     *
+     * @return the input latency of the level.
+     */
+    public InputLatency getLatency() {
+        return latency;
+    }
+
+    /**
+     * Counts the notes on screen in every lane of the level.
+     *
+     * @return the number of live notes.
+     */
+    public int countLiveNotes() {
+        int count = 0;
+        for (Lane lane : lanes) {
+            count += lane.getLiveNotes().size();
+        }
+        return count;
+    }
+
+    /**
+     * Counts the entities in play in the level, such as enemies and projectiles.
+     * Levels without entities have none.
+     *
+     * @return the number of entities.
+     */
+    public int countEntities() {
+        return 0;
+    }
+
+    /**
+     * Checks if all the lanes in the level are finished.
+     *
+     * @return true if all lanes are finished, false otherwise.
+     */
+    public boolean checkFinished() {
+        return completion.isFinished();
+    }
+
+    /**
+     * Retrieves the current score in the level.
+     *
+     * @return the current score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the clock of the level.
+     *
+     * @return the clock tracking the frame and scroll speed of the level.
+     */
+    public GameClock getClock() {
+        return clock;
     }
 
     /**
@@ -108,11 +894,14 @@ public abstract class Level {
      */
     public void drawEndingScreen() {
         // Determine win/loss message based on score and current level's target score
-        String message = score >= target_score ? CLEAR_MESSAGE : TRY_AGAIN_MESSAGE;
+        titleLabel.setText(score >= target_score ? CLEAR_MESSAGE : TRY_AGAIN_MESSAGE);
         // Draw the win/loss message
-        TITLE_FONT.drawString(message, (WINDOW_WIDTH - TITLE_FONT.getWidth(message)) / 2, WIN_Y);
+        titleLabel.drawCentred(WINDOW_WIDTH / 2.0, WIN_Y);
 
         // Draw the instruction message
-        INSTRUCTION_FONT.drawString(RETURN_INSTRUCTIONS, (WINDOW_WIDTH - INSTRUCTION_FONT.getWidth(RETURN_INSTRUCTIONS)) / 2, RETURN_INSTRUCTION_Y);
+        instructionLabel.setText(RETURN_INSTRUCTIONS);
+        instructionLabel.drawCentred(WINDOW_WIDTH / 2.0, RETURN_INSTRUCTION_Y);
+        retryLabel.setText(RETRY_INSTRUCTIONS);
+        retryLabel.drawCentred(WINDOW_WIDTH / 2.0, RETRY_INSTRUCTION_Y);
     }
 }
\ No newline at end of file
@@ -1,6 +1,4 @@
-import bagel.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
 
 /**
  * Represents Level 2 in the game ShadowDance.
@@ -11,169 +9,44 @@ public class Level2 extends Level{
     /** File location for the CSV file that contains Level 2 data. */
     private final static String CSV_FILE = "res/test2.csv";
 
-    /** X and Y coordinate to display score. */
-    private final static int SCORE_LOCATION = 35;
-
-    /** Font used to display score in Level 2. */
-    private final Font SCORE_FONT = new Font(ShadowDance.FONT_FILE, 30);
-
     /** Target scores required to pass Level 2. */
     private final static int TARGET_SCORES = 400;
 
-    /** Accuracy tracker for Level 2. */
-    private final Accuracy accuracy = new Accuracy();
-
-    /** Track associated with Level 2. */
-    private final Track track;
-
     /** File location for the track used in Level 2. */
     private final static String TRACK_FILE = "res/track2.wav";
 
     /**
-     * Constructs Level 2 by initializing necessary attributes and starting the track.
-     */
-    public Level2(){
-        super(TARGET_SCORES);
-        track = new Track(TRACK_FILE);
-        track.start();
-    }
-
-    /**
-     * Constructs Level 2 by initializing necessary attributes and starting the track.
-     */
-    @Override
-    public void readCsv() {
-        try (BufferedReader br = new BufferedReader(new FileReader(CSV_FILE))) {
-            String textRead;
-            final int LANE_INDEX = 0;
-            final int TYPE_INDEX = 1;
-            final int POSITION_INDEX = 2;
-
-            while ((textRead = br.readLine()) != null) {
-                String[] splitText = textRead.split(",");
-
-                if (splitText[LANE_INDEX].equals("Lane")) {
-                    // reading lanes
-                    String laneType = splitText[TYPE_INDEX];
-                    int pos = Integer.parseInt(splitText[POSITION_INDEX]);
-
-                    if(laneType.equals("Special")){
-                        SpecialLane lane = new SpecialLane(laneType, pos);
-                        lanes.add(lane);
-                    } else{
-                        NormalLane lane = new NormalLane(laneType, pos);
-                        lanes.add(lane);
-                    }
-
-                } else {
-                    // reading notes
-                    String dir = splitText[LANE_INDEX];
-                    Lane lane = null;
-                    for (Lane value : lanes) {
-                        if (value.getType().equals(dir)) {
-                            lane = value;
-                        }
-                    }
-
-                    if (lane != null) {
-                        switch (splitText[TYPE_INDEX]) {
-                            case "Normal":
-                                Note normalNote = new NormalNote(dir, Integer.parseInt(splitText[2]));
-                                lane.addNote(normalNote);
-                                break;
-                            case "Hold":
-                                Note holdNote = new HoldNote(dir, Integer.parseInt(splitText[2]));
-                                lane.addNote(holdNote);
-                                break;
-                            case "DoubleScore":
-                                Note bombNote = new DoubleScoreNote("DoubleScore", Integer.parseInt(splitText[2]));
-                                lane.addNote(bombNote);
-                                break;
-                            case "SpeedUp":
-                                Note speedUp = new SpeedUpNote("SpeedUp", Integer.parseInt(splitText[2]));
-                                lane.addNote(speedUp);
-                                break;
-                            case "SlowDown":
-                                Note slowDown = new SlowDownNote("SlowDown", Integer.parseInt(splitText[2]));
-                                lane.addNote(slowDown);
-                                break;
-                            case "Bomb":
-                                Note bomb = new BombNote("Bomb", Integer.parseInt(splitText[2]));
-                                lane.addNote(bomb);
-                                break;
-                        }
-                    }
-
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.exit(-1);
-        }
-
-    }
-
-    /**
-     * Resets the game state for Level 2.
-     * This includes clearing lanes, resetting score, and other necessary game attributes.
+     * Constructs Level 2 by initializing necessary attributes.
+     *
+     * @throws IOException if the chart cannot be read or is malformed.
      */
-    @Override
-    public void resetGame() {
-        lanes.clear();
-        score = 0;
-        ShadowDance.currFrame = 0;
-        ShadowDance.speedChanger = 2;
-        accuracy.setCurrAccuracy(null);
-        ShadowDance.started = false;
-        ShadowDance.finished = false;
+    public Level2() throws IOException {
+        super(TARGET_SCORES, CSV_FILE, TRACK_FILE);
     }
 
     /**
-     * Updates the paused state of Level 2 based on user input.
-     * Renders lanes, guardian, enemies, projectiles, and score.
+     * Retrieves the number of Level 2.
      *
-     * @param input the user's input.
+     * @return 2.
      */
     @Override
-    public void updatePausedState(Input input) {
-        if (input.wasPressed(Keys.TAB)) {
-            ShadowDance.paused = false;
-            track.run();
-        }
-
-        // Draw lanes
-        for (Lane lane : lanes) {
-            lane.draw();
-        }
-
-        SCORE_FONT.drawString("Score " + score, SCORE_LOCATION, SCORE_LOCATION);
+    public int getNumber() {
+        return 2;
     }
 
     /**
-     * Updates the gameplay state of Level 2 based on user input.
-     * Handles score rendering, enemy updates, and note updates.
+     * Registers the lane and note types that may appear in Level 2's chart.
      *
-     * @param input the user's input.
+     * @param loader the loader reading the chart.
      */
     @Override
-    public void updateGameplay(Input input) {
-        SCORE_FONT.drawString("Score " + score, SCORE_LOCATION, SCORE_LOCATION);
-
-        ShadowDance.currFrame++;
-        for (Lane lane : lanes) {
-            score += lane.update(input, accuracy);
-
-            for (Note note : lane.getNotes()) {
-                note.setSpeed(ShadowDance.speedChanger);
-            }
-        }
-
-        accuracy.update();
-        ShadowDance.finished = checkFinished();
-
-        if (input.wasPressed(Keys.TAB)) {
-            ShadowDance.paused = true;
-            track.pause();
-        }
+    protected void registerChartTypes(ChartLoader loader) {
+        loader.registerLaneType("Special", SpecialLane::new);
+        loader.registerNoteType("Normal", NormalNote::new);
+        loader.registerNoteType("Hold", HoldNote::new);
+        loader.registerNoteType("DoubleScore", (lane, frame) -> new DoubleScoreNote("DoubleScore", frame));
+        loader.registerNoteType("SpeedUp", (lane, frame) -> new SpeedUpNote("SpeedUp", frame));
+        loader.registerNoteType("SlowDown", (lane, frame) -> new SlowDownNote("SlowDown", frame));
+        loader.registerNoteType("Bomb", (lane, frame) -> new BombNote("Bomb", frame));
     }
 }
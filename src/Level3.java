@@ -1,7 +1,7 @@
-import bagel.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.ArrayList;
+import bagel.Keys;
+import java.io.IOException;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * Represents Level 3 in the game ShadowDance.
@@ -12,247 +12,310 @@ public class Level3 extends Level{
     /** File location for the CSV file that contains Level 3 data. */
     private final static String CSV_FILE = "res/test3.csv";
 
-    /** X and Y coordinate to display score. */
-    private final static int SCORE_LOCATION = 35;
-
-    /** Font used to display score in Level 3. */
-    private final Font SCORE_FONT = new Font(ShadowDance.FONT_FILE, 30);
-
     /** Target scores required to pass Level 3. */
     private final static int TARGET_SCORES = 350;
 
-    /** Accuracy tracker for Level 3. */
-    private final Accuracy accuracy = new Accuracy();
-
-    /** Track associated with Level 3. */
-    private final Track track;
-
     /** File location for the track used in Level 3. */
     private final static String TRACK_FILE = "res/track3.wav";
 
-    /** List of enemies in Level 3. */
-    private final ArrayList<Enemy> enemies = new ArrayList<>();
+    /** Number of enemies expected in play at once, created when the level is. */
+    private final static int ENEMY_CAPACITY = 16;
+
+    /** Number of projectiles expected in flight at once, created when the level is. */
+    private final static int PROJECTILE_CAPACITY = 16;
+
+    /** Pool of enemies in Level 3. */
+    private final EntityPool<Enemy> enemies = new EntityPool<>(Enemy::new, ENEMY_CAPACITY);
 
     /** The guardian character in Level 3. */
     private final Guardian guardian = new Guardian();
 
-    /** List of projectiles fired in Level 3. */
-    private final ArrayList<Projectile> projectiles = new ArrayList<>();
+    /** Pool of projectiles fired in Level 3. */
+    private final EntityPool<Projectile> projectiles = new EntityPool<>(Projectile::new, PROJECTILE_CAPACITY);
+
+    /** Random number generator shared by every enemy spawned in Level 3, reseeded for each. */
+    private final Random random = new Random(0);
+
+    /** Odd constant spreading the seeds of consecutive spawns apart. */
+    private final static long SPAWN_SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    /** Number of enemies spawned since the level started. */
+    private int spawnCount = 0;
+
+    /** Numbers saved for each enemy in a snapshot: its position and direction. */
+    private final static int ENEMY_FIELDS = 3;
+
+    /** Numbers saved for each projectile in a snapshot: its position and direction. */
+    private final static int PROJECTILE_FIELDS = 4;
+
+    /** Numbers saved before the enemies in a snapshot: the spawn and enemy counts. */
+    private final static int ENTITY_HEADER = 2;
 
     /** Rate at which enemies spawn in Level 3. */
     private final static int ENEMY_SPAWN_RATE = 600;
 
+    /** Side length of the cells of the enemy grid, a little over the largest collision distance. */
+    private final static int GRID_CELL_SIZE = 128;
+
+    /** Grid of enemy positions, rebuilt every frame after the enemies move. */
+    private final SpatialGrid enemyGrid =
+            new SpatialGrid(ShadowDance.WINDOW_WIDTH, ShadowDance.WINDOW_HEIGHT, GRID_CELL_SIZE);
+
     /**
-     * Constructs Level 3 by initializing necessary attributes and starting the track.
+     * Constructs Level 3 by initializing necessary attributes.
+     *
+     * @throws IOException if the chart cannot be read or is malformed.
      */
-    public Level3(){
-        super(TARGET_SCORES);
-        track = new Track(TRACK_FILE);
-        track.start();
+    public Level3() throws IOException {
+        super(TARGET_SCORES, CSV_FILE, TRACK_FILE);
     }
 
     /**
-     * Constructs Level 3 by initializing necessary attributes and starting the track.
+     * Retrieves the number of Level 3.
+     *
+     * @return 3.
      */
     @Override
-    public void readCsv() {
-        try (BufferedReader br = new BufferedReader(new FileReader(CSV_FILE))) {
-            String textRead;
-            final int LANE_INDEX = 0;
-            final int TYPE_INDEX = 1;
-            final int POSITION_INDEX = 2;
-
-            while ((textRead = br.readLine()) != null) {
-                String[] splitText = textRead.split(",");
-
-                if (splitText[LANE_INDEX].equals("Lane")) {
-                    // reading lanes
-                    String laneType = splitText[TYPE_INDEX];
-                    int pos = Integer.parseInt(splitText[POSITION_INDEX]);
-                    if(laneType.equals("Special")){
-                        SpecialLane lane = new SpecialLane(laneType, pos);
-                        lanes.add(lane);
-                    } else{
-                        NormalLane lane = new NormalLane(laneType, pos);
-                        lanes.add(lane);
-                    }
-
-                } else {
-                    // reading notes
-                    String dir = splitText[LANE_INDEX];
-                    Lane lane = null;
-                    for (Lane value : lanes) {
-                        if (value.getType().equals(dir)) {
-                            lane = value;
-                        }
-                    }
-
-                    if (lane != null) {
-                        switch (splitText[TYPE_INDEX]) {
-                            case "Normal":
-                                Note normalNote = new NormalNote(dir, Integer.parseInt(splitText[2]));
-                                lane.addNote(normalNote);
-                                break;
-                            case "Hold":
-                                Note holdNote = new HoldNote(dir, Integer.parseInt(splitText[2]));
-                                lane.addNote(holdNote);
-                                break;
-                            case "DoubleScore":
-                                Note bombNote = new DoubleScoreNote("DoubleScore", Integer.parseInt(splitText[2]));
-                                lane.addNote(bombNote);
-                                break;
-                            case "SpeedUp":
-                                Note speedUp = new SpeedUpNote("SpeedUp", Integer.parseInt(splitText[2]));
-                                lane.addNote(speedUp);
-                                break;
-                            case "SlowDown":
-                                Note slowDown = new SlowDownNote("SlowDown", Integer.parseInt(splitText[2]));
-                                lane.addNote(slowDown);
-                                break;
-                            case "Bomb":
-                                Note bomb = new BombNote("Bomb", Integer.parseInt(splitText[2]));
-                                lane.addNote(bomb);
-                                break;
-
-                        }
-                    }
+    public int getNumber() {
+        return 3;
+    }
 
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.exit(-1);
-        }
+    /**
+     * Registers the lane and note types that may appear in Level 3's chart.
+     *
+     * @param loader the loader reading the chart.
+     */
+    @Override
+    protected void registerChartTypes(ChartLoader loader) {
+        loader.registerLaneType("Special", SpecialLane::new);
+        loader.registerNoteType("Normal", NormalNote::new);
+        loader.registerNoteType("Hold", HoldNote::new);
+        loader.registerNoteType("DoubleScore", (lane, frame) -> new DoubleScoreNote("DoubleScore", frame));
+        loader.registerNoteType("SpeedUp", (lane, frame) -> new SpeedUpNote("SpeedUp", frame));
+        loader.registerNoteType("SlowDown", (lane, frame) -> new SlowDownNote("SlowDown", frame));
+        loader.registerNoteType("Bomb", (lane, frame) -> new BombNote("Bomb", frame));
+    }
 
+    /**
+     * Retrieves the paths of every image used by Level 3, including its entities.
+     *
+     * @return the distinct image paths of the lanes, notes and entities of the level.
+     */
+    @Override
+    public Set<String> getImagePaths() {
+        Set<String> paths = super.getImagePaths();
+        paths.add(Guardian.IMAGE_PATH);
+        paths.add(Enemy.IMAGE_PATH);
+        paths.add(Projectile.IMAGE_PATH);
+        return paths;
     }
 
     /**
      * Resets the game state for Level 3.
-     * This includes clearing lanes, resetting score, and other necessary game attributes.
+     * This includes clearing lanes, enemies, projectiles, score, and other necessary game attributes.
      */
     @Override
     public void resetGame() {
-        lanes.clear();
-        enemies.clear();
-        projectiles.clear();
-        score = 0;
-        ShadowDance.currFrame = 0;
-        ShadowDance.speedChanger = 2;
-        accuracy.setCurrAccuracy(null);
-        ShadowDance.started = false;
-        ShadowDance.finished = false;
+        super.resetGame();
+        spawnCount = 0;
+        enemies.releaseAll();
+        projectiles.releaseAll();
     }
 
     /**
-     * Updates the paused state of Level 3 based on user input.
-     * Renders lanes, guardian, enemies, projectiles, and score.
+     * Clears the enemies and projectiles when seeking, and counts the spawns before the new
+     * frame, so that enemies spawned after it are placed as they would have been.
      *
-     * @param input the user's input.
+     * @param frame the frame being moved to.
      */
     @Override
-    public void updatePausedState(Input input) {
-        if (input.wasPressed(Keys.TAB)) {
-            ShadowDance.paused = false;
-            track.run();
-        }
+    protected void seekEntities(int frame) {
+        spawnCount = frame / ENEMY_SPAWN_RATE;
+        enemies.releaseAll();
+        projectiles.releaseAll();
+    }
 
-        // Draw lanes
-        for (Lane lane : lanes) {
-            lane.draw();
+    /**
+     * Saves the spawn count, enemies and projectiles into a snapshot, as the spawn count, the
+     * number of enemies, then the position and direction of each enemy and of each projectile
+     * in the order they are in play.
+     *
+     * @param snapshot the snapshot being taken.
+     */
+    @Override
+    protected void saveEntities(LevelSnapshot snapshot) {
+        double[] state = new double[ENTITY_HEADER + enemies.size() * ENEMY_FIELDS
+                + projectiles.size() * PROJECTILE_FIELDS];
+        state[0] = spawnCount;
+        state[1] = enemies.size();
+        int i = ENTITY_HEADER;
+        for (Enemy enemy : enemies.getLive()) {
+            state[i++] = enemy.getX();
+            state[i++] = enemy.getY();
+            state[i++] = enemy.getDirection();
         }
-
-        // Draw the guardian, enemies, and projectiles during the paused state
-        guardian.draw();
-
-        for (Enemy enemy : enemies) {
-            enemy.draw();
+        for (Projectile projectile : projectiles.getLive()) {
+            state[i++] = projectile.getX();
+            state[i++] = projectile.getY();
+            state[i++] = projectile.getDirectionX();
+            state[i++] = projectile.getDirectionY();
         }
+        snapshot.setEntityState(state);
+    }
 
-        for (Projectile projectile : projectiles) {
-            projectile.draw();
+    /**
+     * Restores the spawn count, enemies and projectiles from a snapshot, putting them in play
+     * in the order they were saved so that the level plays on as it did.
+     *
+     * @param snapshot the snapshot being restored.
+     */
+    @Override
+    protected void restoreEntities(LevelSnapshot snapshot) {
+        double[] state = snapshot.getEntityState();
+        enemies.releaseAll();
+        projectiles.releaseAll();
+        spawnCount = (int) state[0];
+        int enemyEnd = ENTITY_HEADER + (int) state[1] * ENEMY_FIELDS;
+        for (int i = ENTITY_HEADER; i < enemyEnd; i += ENEMY_FIELDS) {
+            enemies.acquire().place(state[i], state[i + 1], (int) state[i + 2]);
+        }
+        for (int i = enemyEnd; i < state.length; i += PROJECTILE_FIELDS) {
+            projectiles.acquire().place(state[i], state[i + 1], state[i + 2], state[i + 3]);
         }
-        SCORE_FONT.drawString("Score " + score, SCORE_LOCATION, SCORE_LOCATION);
     }
 
     /**
-     * Updates the gameplay state of Level 3 based on user input.
-     * Handles score rendering, enemy updates, and note updates.
+     * Advances the game logic of Level 3 by one frame.
+     * Enemies and projectiles are updated before the lanes.
      *
-     * @param input the user's input.
+     * @param input the input to be consumed by this tick.
      */
     @Override
-    public void updateGameplay(Input input) {
-        SCORE_FONT.drawString("Score " + score, SCORE_LOCATION, SCORE_LOCATION);
+    public void tick(TickInput input) {
+        FrameProfiler.begin(FrameProfiler.UPDATE_ENEMIES);
         updateEnemies(input);
-        ShadowDance.currFrame++;
-        for (Lane lane : lanes) {
-            score += lane.update(input, accuracy);
+        FrameProfiler.end(this);
+        super.tick(input);
+    }
 
-            for (Note note : lane.getNotes()) {
-                note.setSpeed(ShadowDance.speedChanger);
-            }
-        }
+    /**
+     * Counts the guardian, enemies and projectiles in play.
+     *
+     * @return the number of entities.
+     */
+    @Override
+    public int countEntities() {
+        return 1 + enemies.size() + projectiles.size();
+    }
+
+    /**
+     * Queues the guardian, enemies, and projectiles of Level 3 to be drawn.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
+     */
+    @Override
+    protected void drawEntities(double alpha, RenderQueue queue) {
+        guardian.draw(alpha, queue);
 
-        accuracy.update();
-        ShadowDance.finished = checkFinished();
+        for (Enemy enemy : enemies.getLive()) {
+            enemy.draw(alpha, queue);
+        }
 
-        if (input.wasPressed(Keys.TAB)) {
-            ShadowDance.paused = true;
-            track.pause();
+        for (Projectile projectile : projectiles.getLive()) {
+            projectile.draw(alpha, queue);
         }
     }
 
     /**
      * Updates the enemies in Level 3.
      * Handles enemy spawning, their movements, and collisions with lanes.
+     * Collisions and targeting are looked up in a grid of enemy positions, so each note and
+     * projectile only checks the enemies near it.
      *
      * @param input the user's input.
      */
-    public void updateEnemies(Input input) {
-        if (ShadowDance.currFrame % ENEMY_SPAWN_RATE == 0 && ShadowDance.currFrame != 0) {
-            enemies.add(new Enemy());
+    public void updateEnemies(TickInput input) {
+        if (clock.getCurrFrame() % ENEMY_SPAWN_RATE == 0 && clock.getCurrFrame() != 0) {
+            spawnEnemy();
         }
 
-        for (Enemy enemy : enemies) {
+        enemyGrid.clear();
+        for (Enemy enemy : enemies.getLive()) {
             enemy.update();
-            enemy.isCollidingWith(lanes);
+            enemyGrid.add(enemy.getX(), enemy.getY());
         }
+        enemyGrid.build();
+        Enemy.stealNotes(lanes, enemyGrid);
 
         handleProjectileFire(input);
 
-        ArrayList<Projectile> projectilesToRemove = new ArrayList<>();
-        for (Projectile projectile : projectiles) {
+        // Released projectiles are replaced by the last one, which has not been updated yet
+        int i = 0;
+        while (i < projectiles.size()) {
+            Projectile projectile = projectiles.get(i);
             projectile.update();
 
-            if (projectile.isOffScreen()) {
-                projectilesToRemove.add(projectile);
-            } else if (projectile.isCollidingWithEnemies(enemies)) {
-                for (Enemy enemy : enemies) {
-                    if (projectile.isCollidingWith(enemy)) {
-                        enemies.remove(enemy);
-                        projectilesToRemove.add(projectile);
-                        break;
-                    }
+            boolean spent = projectile.isOffScreen();
+            if (!spent) {
+                int enemy = projectile.findCollidingEnemy(enemyGrid);
+                if (enemy != -1) {
+                    enemyGrid.remove(enemy);
+                    spent = true;
                 }
             }
+            if (spent) {
+                projectiles.release(i);
+            } else {
+                i++;
+            }
         }
-        projectiles.removeAll(projectilesToRemove);
 
-        guardian.draw();
+        removeShotEnemies();
+    }
+
+    /**
+     * Returns the enemies hit by projectiles this frame to the pool.
+     * Enemies are visited from the last so that each one moved into a released slot has
+     * already been checked.
+     */
+    private void removeShotEnemies() {
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            if (enemyGrid.isRemoved(i)) {
+                enemies.release(i);
+            }
+        }
+    }
+
+    /**
+     * Spawns a new enemy at a random position.
+     * The random numbers are seeded from the level's seed and the number of the spawn, so each
+     * enemy is placed the same way whenever the level is replayed with the same seed.
+     */
+    public void spawnEnemy() {
+        random.setSeed(getSeed() + spawnCount * SPAWN_SEED_STRIDE);
+        spawnCount++;
+        enemies.acquire().spawn(random);
+    }
+
+    /**
+     * Retrieves the number of enemies currently alive.
+     *
+     * @return the number of enemies.
+     */
+    public int getEnemyCount() {
+        return enemies.size();
     }
 
     /**
      * Handles the firing of projectiles based on user input.
-     * If a projectile is fired, it is added to the list of projectiles.
+     * If a projectile is fired, it is taken from the pool of projectiles.
      *
      * @param input the user's input.
      */
-    public void handleProjectileFire(Input input) {
+    public void handleProjectileFire(TickInput input) {
         if (input.wasPressed(Keys.LEFT_SHIFT)) {
-            Projectile projectile = guardian.fireAtClosestEnemy(enemies);
-            if (projectile != null) {
-                projectiles.add(projectile);
-            }
+            guardian.fireAtClosestEnemy(enemies.getLive(), enemyGrid, projectiles);
         }
     }
 }
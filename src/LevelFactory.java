@@ -0,0 +1,14 @@
+import java.io.IOException;
+
+/**
+ * Creates a level, reading its chart.
+ */
+public interface LevelFactory {
+    /**
+     * Creates the level.
+     *
+     * @return the new level.
+     * @throws IOException if the chart cannot be read or is malformed.
+     */
+    Level create() throws IOException;
+}
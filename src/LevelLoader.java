@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Prepares a level in the background while the level-select screen is showing.
+ * The level and its chart are built on a loader thread; its images and fonts are then loaded
+ * a few at a time on the render thread, which owns the window. Once both are done the level
+ * can start on the frame it is selected.
+ */
+public class LevelLoader {
+    /** Number of images or fonts loaded on each frame once the level is built. */
+    private static final int ASSETS_PER_FRAME = 2;
+
+    /** The level being built on the loader thread. */
+    private final CompletableFuture<Level> future;
+
+    /** The level, once it has been built. */
+    private Level level = null;
+
+    /** Whether every image and font of the level has been loaded. */
+    private boolean assetsLoaded = false;
+
+    /**
+     * Starts preparing a level.
+     *
+     * @param factory  creates the level.
+     * @param executor runs the creation of the level off the render thread.
+     */
+    public LevelLoader(LevelFactory factory, Executor executor) {
+        future = CompletableFuture.supplyAsync(() -> {
+            try {
+                Level level = factory.create();
+                level.composeStaticLayer();
+                return level;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads some of the level's images and fonts if the level has been built.
+     * Must be called from the render thread, once a frame.
+     */
+    public void update() {
+        if (level == null && future.isDone() && !future.isCompletedExceptionally()) {
+            level = future.join();
+        }
+        for (int i = 0; i < ASSETS_PER_FRAME && level != null && !assetsLoaded; i++) {
+            assetsLoaded = !level.preloadNextAsset();
+        }
+    }
+
+    /**
+     * Checks if the level is ready to start.
+     *
+     * @return true if the level has been built and all its assets loaded, false otherwise.
+     */
+    public boolean isReady() {
+        return assetsLoaded;
+    }
+
+    /**
+     * Checks if building the level has failed.
+     *
+     * @return true if the level could not be built, false otherwise.
+     */
+    public boolean isFailed() {
+        return future.isCompletedExceptionally();
+    }
+
+    /**
+     * Retrieves the level, loading any of its remaining assets.
+     * Must be called from the render thread once the level is ready or has failed.
+     *
+     * @return the level, ready to start.
+     * @throws IOException if the level could not be built.
+     */
+    public Level getLevel() throws IOException {
+        try {
+            level = future.get();
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof UncheckedIOException ? ((UncheckedIOException) cause).getCause()
+                    : new IOException(cause);
+        } catch (InterruptedException | CancellationException e) {
+            throw new IOException("level loading was interrupted", e);
+        }
+        level.preloadAssets();
+        assetsLoaded = true;
+        return level;
+    }
+
+    /**
+     * Stops preparing the level and releases any assets already loaded for it.
+     */
+    public void cancel() {
+        future.cancel(true);
+        if (level != null) {
+            level.releaseAssets();
+            level = null;
+        }
+        assetsLoaded = false;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+
+/**
+ * The live state of a level at one frame, saved so that the level can be put back to it at
+ * once, such as to retry a song from the start or to play a practice loop again.
+ * The chart, the track and the textures never change during play, so only what does is
+ * saved: the clock and its speed changes, the score, the accuracy and its score effect, the
+ * live window of each lane with a few bits for each note in it, and the level's entities.
+ * Note positions follow from the clock, so none are saved, and saving and restoring take time
+ * in proportion to the notes on screen rather than to the length of the chart.
+ */
+public class LevelSnapshot {
+    /** Clock of the level, with every speed change made before the frame. */
+    private final GameClock clock = new GameClock();
+
+    /** Accuracy shown and score effect applied. */
+    private final Accuracy accuracy = new Accuracy();
+
+    /** Score of the level. */
+    private final int score;
+
+    /** Saved state of each lane, in the order of the level's lanes. */
+    private final ArrayList<LaneState> lanes = new ArrayList<>();
+
+    /** Positions and other numbers describing the level's entities, laid out by the level. */
+    private double[] entityState = new double[0];
+
+    /**
+     * The saved state of one lane.
+     */
+    public static final class LaneState {
+        /** Index of the first note of the live window. */
+        private final int currNote;
+
+        /** Number of the lane's notes completed. */
+        private final int completed;
+
+        /** Saved state of each note in the live window. */
+        private final byte[] noteStates;
+
+        /**
+         * Constructs the saved state of a lane.
+         *
+         * @param currNote   the index of the first note of the live window.
+         * @param completed  the number of the lane's notes completed.
+         * @param noteStates the saved state of each note in the live window.
+         */
+        public LaneState(int currNote, int completed, byte[] noteStates) {
+            this.currNote = currNote;
+            this.completed = completed;
+            this.noteStates = noteStates;
+        }
+
+        /**
+         * Retrieves the index of the first note of the live window.
+         *
+         * @return the index of the note.
+         */
+        public int getCurrNote() {
+            return currNote;
+        }
+
+        /**
+         * Retrieves the number of notes in the live window.
+         *
+         * @return the number of live notes.
+         */
+        public int getNoteCount() {
+            return noteStates.length;
+        }
+
+        /**
+         * Retrieves the saved state of a note in the live window.
+         *
+         * @param index the index of the note within the window.
+         * @return the state saved by {@link Note#saveState()}.
+         */
+        public int getNoteState(int index) {
+            return noteStates[index];
+        }
+
+        /**
+         * Retrieves the number of the lane's notes completed.
+         *
+         * @return the number of completed notes.
+         */
+        public int getCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * Constructs a snapshot of a level's clock, score and accuracy. The level adds the state of
+     * its lanes and entities.
+     *
+     * @param clock    the clock of the level.
+     * @param score    the score of the level.
+     * @param accuracy the accuracy tracker of the level.
+     */
+    public LevelSnapshot(GameClock clock, int score, Accuracy accuracy) {
+        this.clock.copyFrom(clock);
+        this.score = score;
+        this.accuracy.copyFrom(accuracy);
+    }
+
+    /**
+     * Retrieves the frame the level was saved on.
+     *
+     * @return the frame number.
+     */
+    public int getFrame() {
+        return clock.getCurrFrame();
+    }
+
+    /**
+     * Retrieves the saved clock, which must not be changed.
+     *
+     * @return the clock as it was on the frame.
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Retrieves the saved score.
+     *
+     * @return the score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the saved accuracy tracker, which must not be changed.
+     *
+     * @return the accuracy tracker as it was on the frame.
+     */
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Adds the saved state of the level's next lane.
+     *
+     * @param lane the lane's saved state.
+     */
+    public void addLane(LaneState lane) {
+        lanes.add(lane);
+    }
+
+    /**
+     * Retrieves the saved state of a lane.
+     *
+     * @param index the index of the lane in the level.
+     * @return the lane's saved state.
+     */
+    public LaneState getLane(int index) {
+        return lanes.get(index);
+    }
+
+    /**
+     * Retrieves the number of lanes saved.
+     *
+     * @return the number of lanes.
+     */
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * Sets the numbers describing the level's entities.
+     *
+     * @param entityState the numbers, laid out as the level chooses.
+     */
+    public void setEntityState(double[] entityState) {
+        this.entityState = entityState;
+    }
+
+    /**
+     * Retrieves the numbers describing the level's entities, which must not be changed.
+     *
+     * @return the numbers, empty for levels without entities.
+     */
+    public double[] getEntityState() {
+        return entityState;
+    }
+}
@@ -1,14 +1,12 @@
-import bagel.*;
-
-import java.util.ArrayList;
+import bagel.Keys;
 
 /**
  * Represents a standard note in the game.
  * This type of note has a basic behavior and appearance as opposed to special types of notes.
  */
 public class NormalNote extends Note{
-    /** The image representing the normal note. */
-    private final Image image;
+    /** Path to the image representing the normal note. */
+    private final String imagePath;
 
     /** The y-coordinate at which the note should begin to appear. */
     private final static int STARTING_Y = 100;
@@ -21,24 +19,36 @@ public class NormalNote extends Note{
      */
     public NormalNote(String dir, int appearanceFrame) {
         super(appearanceFrame);
-        image = new Image("res/note" + dir + ".png");
+        imagePath = "res/note" + dir + ".png";
         setY(STARTING_Y);
     }
 
+    /**
+     * Checks if an enemy touching the note would steal it, which it would while it is active.
+     *
+     * @return true if the note is active, false otherwise.
+     */
+    @Override
+    public boolean canBeStolen() {
+        return isActive();
+    }
+
     /**
      * Checks the score for this note based on its current state and the player's input.
      *
      * @param input         the user's input to check against.
      * @param accuracy      the accuracy evaluator.
+     * @param clock         the clock of the level the note belongs to.
      * @param targetHeight  the target height for the note to be pressed.
      * @param relevantKey   the key associated with this note.
-     * @param notes         the list of all notes in the lane.
+     * @param lane          the lane the note belongs to.
      * @return the score evaluated for this note.
      */
     @Override
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes) {
+    public int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane) {
         if (isActive()) {
-            int score = accuracy.evaluateScore(getY(), targetHeight, input.wasPressed(relevantKey));
+            double offset = getHitOffset(input.getPressTime(relevantKey), clock, getY(), targetHeight);
+            int score = accuracy.evaluateScore(offset, getY(), input.wasPressed(relevantKey));
 
             if (score != Accuracy.NOT_SCORED) {
                 deactivate();
@@ -49,14 +59,26 @@ public class NormalNote extends Note{
     }
 
     /**
-     * Draws the normal note on the screen if it is active.
+     * Retrieves the path to the image representing the note.
+     *
+     * @return the path to the image file.
+     */
+    @Override
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Queues the normal note to be drawn if it is active.
      *
-     * @param x the x-coordinate where the note should be drawn.
+     * @param x     the x-coordinate where the note should be drawn.
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
      */
     @Override
-    public void draw(int x) {
+    public void draw(int x, double alpha, RenderQueue queue) {
         if (isActive()) {
-            image.draw(x, getY());
+            queue.draw(imagePath, x, getDrawY(alpha), RenderQueue.NOTE_LAYER);
         }
     }
 }
@@ -1,20 +1,36 @@
-import bagel.*;
-
-import java.util.ArrayList;
+import bagel.Keys;
 
 /**
  * Represents an abstract note in the game.
  * Defines the basic behavior and properties of a note, with specific behaviors to be defined by subclasses.
+ * A note's position is worked out from the frame it became active and the level's scroll
+ * timeline rather than moved every frame, so it is exact however many frames are run at once
+ * and notes cost nothing on frames they are not looked at.
  */
 public abstract class Note {
+    /** Number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Bit of a saved state set if the note is active. */
+    private static final int ACTIVE_BIT = 1;
+
+    /** Bit of a saved state set if the note is completed. */
+    private static final int COMPLETED_BIT = 2;
+
+    /** First bit of a saved state left for the state of subclasses. */
+    protected static final int SUBCLASS_BIT = 4;
+
     /** The frame number at which the note should begin to appear. */
     private final int appearanceFrame;
 
-    /** The speed at which the note moves on the screen. */
-    private int speed = 2;
+    /** The vertical position (y-coordinate) of the note before it starts moving. */
+    private int startY;
 
-    /** The current vertical position (y-coordinate) of the note. */
-    private int y;
+    /** Clock of the level the note is moving in, set when the note becomes active. */
+    private GameClock clock = null;
+
+    /** The frame on which the note became active, after which it moves down. */
+    private int activationFrame;
 
     /** Indicates whether the note is currently active on the screen. */
     private boolean active = false;
@@ -22,6 +38,9 @@ public abstract class Note {
     /** Indicates whether the note has been interacted with (completed) or not. */
     private boolean completed = false;
 
+    /** Counter notified when the note is completed, set when the note is added to a lane. */
+    private CompletionCounter completion = null;
+
     /**
      * Constructs a new Note with the specified appearance frame.
      *
@@ -32,12 +51,12 @@ public abstract class Note {
     }
 
     /**
-     * Sets the speed of the note.
+     * Retrieves the frame at which the note begins to appear.
      *
-     * @param speed the speed to set.
+     * @return the appearance frame of the note.
      */
-    public void setSpeed(int speed) {
-        this.speed = speed;
+    public int getAppearanceFrame() {
+        return appearanceFrame;
     }
 
     /**
@@ -49,6 +68,15 @@ public abstract class Note {
         return active;
     }
 
+    /**
+     * Checks if an enemy touching the note would steal it. Only normal notes can be stolen.
+     *
+     * @return true if the note can be stolen now, false otherwise.
+     */
+    public boolean canBeStolen() {
+        return false;
+    }
+
     /**
      * Checks if the note has been completed.
      *
@@ -58,53 +86,157 @@ public abstract class Note {
         return completed;
     }
 
+    /**
+     * Sets the counter to be notified when the note is completed.
+     *
+     * @param completion the completion counter of the note's lane.
+     */
+    public void setCompletion(CompletionCounter completion) {
+        this.completion = completion;
+        completion.register();
+    }
+
     /**
      * Marks the note as inactive and completed.
      */
     public void deactivate() {
+        if (!completed && completion != null) {
+            completion.complete();
+        }
         active = false;
         completed = true;
     }
 
     /**
-     * Updates the note's state based on its current status and the game's frame count.
+     * Makes the note active on the current frame, as it joins its lane's live window, so that it
+     * moves down with the level's scroll from the next frame. Anything left from being played
+     * before a seek back is cleared.
+     *
+     * @param clock the clock of the level the note belongs to.
      */
-    public void update() {
-        if (active) {
-            y += speed;
-        }
+    public void activate(GameClock clock) {
+        completed = false;
+        resetState();
+        active = true;
+        this.clock = clock;
+        activationFrame = clock.getCurrFrame();
+    }
 
-        if (ShadowDance.getCurrFrame() >= appearanceFrame && !completed) {
+    /**
+     * Restores the note to how it would be on the clock's current frame had nobody played it:
+     * neither hit nor missed, and active from the frame it appeared if it has appeared.
+     * Used when seeking, so does not notify the completion counter.
+     *
+     * @param clock the clock of the level the note belongs to, already moved to the new frame.
+     */
+    public void rewind(GameClock clock) {
+        completed = false;
+        active = false;
+        this.clock = null;
+        resetState();
+        int frame = clock.getCurrFrame();
+        if (frame > 0 && appearanceFrame <= frame) {
             active = true;
+            this.clock = clock;
+            // The first tick is frame 1, so notes due before it appear on it
+            activationFrame = Math.max(appearanceFrame, 1);
         }
     }
 
     /**
-     * Draws the note on the screen at the specified x-coordinate.
+     * Marks the note as completed without scoring or counting it, as it was passed over by a
+     * seek.
+     */
+    public void skip() {
+        active = false;
+        completed = true;
+    }
+
+    /**
+     * Saves the state the note has gained while being played, for a {@link LevelSnapshot}.
+     * Its position is not saved, since it follows from the clock.
+     *
+     * @return the state as a set of bits.
+     */
+    public int saveState() {
+        return (active ? ACTIVE_BIT : 0) | (completed ? COMPLETED_BIT : 0);
+    }
+
+    /**
+     * Restores a state saved by {@link #saveState()} while the note was in its lane's live
+     * window. Does not notify the completion counter, which is restored with the lane.
      *
-     * @param x the x-coordinate where the note should be drawn.
+     * @param clock the clock of the level the note belongs to, already restored.
+     * @param state the saved state.
      */
-    public abstract void draw(int x);
+    public void restoreState(GameClock clock, int state) {
+        rewind(clock);
+        active = (state & ACTIVE_BIT) != 0;
+        completed = (state & COMPLETED_BIT) != 0;
+    }
+
+    /**
+     * Clears any state a note gains while being played, such as a hold having started.
+     * Notes without such state do nothing.
+     */
+    protected void resetState() {
+    }
+
+    /**
+     * Retrieves the path to the image representing the note.
+     *
+     * @return the path to the image file.
+     */
+    public abstract String getImagePath();
+
+    /**
+     * Queues the note to be drawn on the screen at the specified x-coordinate.
+     *
+     * @param x     the x-coordinate where the note should be drawn.
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @param queue the queue collecting the frame's draws.
+     */
+    public abstract void draw(int x, double alpha, RenderQueue queue);
 
     /**
      * Checks the score for the note based on its current state and the player's input.
      *
      * @param input         the user's input.
      * @param accuracy      the accuracy evaluator.
+     * @param clock         the clock of the level the note belongs to.
      * @param targetHeight  the target height for the note to be pressed.
      * @param relevantKey   the key associated with this note.
-     * @param notes         the list of all notes in the lane.
+     * @param lane          the lane the note belongs to.
      * @return the score evaluated for this note.
      */
-    public abstract int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes);
+    public abstract int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane);
 
     /**
-     * Sets the y-coordinate of the note.
+     * Works out how far a key event was from the moment a point on the note reaches the target,
+     * taking the note to keep moving at the speed it moved at on the current frame. This judges
+     * the event by when it happened within the tick, whatever the scroll speed. A note that is
+     * not moving down is timed as though moving at the starting speed.
+     *
+     * @param time         the song time of the key event, in nanoseconds.
+     * @param clock        the clock of the level the note belongs to.
+     * @param height       the current height of the point on the note being judged.
+     * @param targetHeight the target height for the note to be pressed.
+     * @return the milliseconds from the ideal hit time to the event, negative if early.
+     */
+    protected double getHitOffset(long time, GameClock clock, int height, int targetHeight) {
+        int speed = clock.getFrameSpeed();
+        int pixelsPerTick = speed > 0 ? speed : GameClock.DEFAULT_SPEED;
+        double hitTime = clock.getTime() + (double) (targetHeight - height) / pixelsPerTick * GameClock.NANOS_PER_TICK;
+        return (time - hitTime) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Sets the y-coordinate of the note before it starts moving.
      *
      * @param y the y-coordinate to set.
      */
     public void setY(int y) {
-        this.y = y;
+        this.startY = y;
     }
 
     /**
@@ -113,6 +245,35 @@ public abstract class Note {
      * @return the current y-coordinate of the note.
      */
     public int getY() {
-        return y;
+        return getYAt(clock == null ? 0 : clock.getCurrFrame());
+    }
+
+    /**
+     * Retrieves the y-coordinate to draw the note at, between its positions after the previous
+     * tick and the latest tick.
+     *
+     * @param alpha how far the time being drawn is between the previous tick and the latest.
+     * @return the interpolated y-coordinate of the note.
+     */
+    public double getDrawY(double alpha) {
+        if (clock == null) {
+            return startY;
+        }
+        int prevY = getYAt(clock.getCurrFrame() - 1);
+        return prevY + (getYAt(clock.getCurrFrame()) - prevY) * alpha;
+    }
+
+    /**
+     * Works out the y-coordinate of the note at the end of the given frame: its starting
+     * position, plus the distance scrolled since it became active.
+     *
+     * @param frame the frame number.
+     * @return the y-coordinate of the note.
+     */
+    private int getYAt(int frame) {
+        if (clock == null || frame <= activationFrame) {
+            return startY;
+        }
+        return startY + (int) (clock.getScrollDistance(frame) - clock.getScrollDistance(activationFrame));
     }
 }
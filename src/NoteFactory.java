@@ -0,0 +1,13 @@
+/**
+ * Creates the notes of one note type read from a chart.
+ */
+public interface NoteFactory {
+    /**
+     * Creates a note.
+     *
+     * @param lane            the type of the lane the note belongs to.
+     * @param appearanceFrame the frame on which the note appears.
+     * @return the new note.
+     */
+    Note create(String lane, int appearanceFrame);
+}
@@ -0,0 +1,53 @@
+/**
+ * A playback position reported by the {@link AudioService} to the game loop.
+ */
+public class PlaybackPosition {
+    /** Identifier of the track that was playing, as returned by {@link AudioService#play}. */
+    private final int trackId;
+
+    /** How far the track had played, in microseconds. */
+    private final long position;
+
+    /** System time at which the position was read, in nanoseconds. */
+    private final long sampledAt;
+
+    /**
+     * Constructs a new playback position.
+     *
+     * @param trackId   the identifier of the track that was playing.
+     * @param position  how far the track had played, in microseconds.
+     * @param sampledAt the system time at which the position was read, in nanoseconds.
+     */
+    public PlaybackPosition(int trackId, long position, long sampledAt) {
+        this.trackId = trackId;
+        this.position = position;
+        this.sampledAt = sampledAt;
+    }
+
+    /**
+     * Retrieves the identifier of the track that was playing.
+     *
+     * @return the track identifier.
+     */
+    public int getTrackId() {
+        return trackId;
+    }
+
+    /**
+     * Retrieves how far the track had played.
+     *
+     * @return the playback position in microseconds.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Retrieves the system time at which the position was read.
+     *
+     * @return the system time in nanoseconds.
+     */
+    public long getSampledAt() {
+        return sampledAt;
+    }
+}
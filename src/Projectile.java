@@ -1,18 +1,17 @@
 import bagel.*;
-import java.util.ArrayList;
 
 /**
  * Represents a projectile in the game that moves towards a target.
  */
 public class Projectile extends Entity {
     /** The direction component along the x-axis. */
-    private final double directionX;
+    private double directionX;
 
     /** The direction component along the y-axis. */
-    private final double directionY;
+    private double directionY;
 
     /** The path to the image that represents the projectile. */
-    private final static String IMAGE_PATH = "res/arrow.png";
+    public final static String IMAGE_PATH = "res/arrow.png";
 
     /** The speed at which the projectile moves. */
     private final static int PROJECTILE_SPEED = 6;
@@ -20,61 +19,93 @@ public class Projectile extends Entity {
     /** The distance at which a collision is detected. */
     private final static int COLLISION_DISTANCE = 62;
 
-    /** Drawing options for rotating the projectile. */
-    private final DrawOptions option;
+    /** Drawing options for rotating the projectile, reused each time it is fired. */
+    private final DrawOptions option = new DrawOptions();
 
     /**
-     * Constructs a new Projectile aimed at a specific target enemy.
+     * Constructs a new Projectile at the origin, ready to be fired.
+     */
+    public Projectile() {
+        super(0, 0, IMAGE_PATH);
+    }
+
+    /**
+     * Fires the projectile from a position towards a specific target enemy.
      *
      * @param x The x-coordinate of the starting position.
      * @param y The y-coordinate of the starting position.
      * @param targetEnemy The enemy entity the projectile is aimed at.
      */
-    public Projectile(double x, double y, Enemy targetEnemy) {
-        super(x, y, IMAGE_PATH);
+    public void fire(double x, double y, Enemy targetEnemy) {
+        setX(x);
+        setY(y);
+        savePosition();
 
         double deltaX = targetEnemy.getX() - x;
         double deltaY = targetEnemy.getY() - y;
-        double magnitude = Math.sqrt(Math.pow(deltaX, 2) + Math.pow(deltaY, 2));
+        double magnitude = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
 
         double rotationAngle = Math.atan2(deltaY, deltaX);
-        option = new DrawOptions().setRotation(rotationAngle);
+        option.setRotation(rotationAngle);
 
         this.directionX = deltaX / magnitude;
         this.directionY = deltaY / magnitude;
     }
 
     /**
-     * Draws the projectile on the screen.
+     * Places the projectile at a saved position, flying in a saved direction.
+     *
+     * @param x The x-coordinate of the projectile.
+     * @param y The y-coordinate of the projectile.
+     * @param directionX The direction component along the x-axis.
+     * @param directionY The direction component along the y-axis.
      */
-    @Override
-    public void draw() {
-        getImage().draw(getX(), getY(), option);
+    public void place(double x, double y, double directionX, double directionY) {
+        setX(x);
+        setY(y);
+        savePosition();
+        option.setRotation(Math.atan2(directionY, directionX));
+        this.directionX = directionX;
+        this.directionY = directionY;
     }
 
     /**
-     * Updates the position of the projectile based on its direction and speed.
-     * Also draws the updated projectile on the screen.
+     * Retrieves the direction component along the x-axis.
+     *
+     * @return The x-component of the unit direction the projectile flies in.
      */
-    @Override
-    public void update() {
-        setX(getX() + directionX * PROJECTILE_SPEED);
-        setY(getY() + directionY * PROJECTILE_SPEED);
-        draw();
+    public double getDirectionX() {
+        return directionX;
+    }
+
+    /**
+     * Retrieves the direction component along the y-axis.
+     *
+     * @return The y-component of the unit direction the projectile flies in.
+     */
+    public double getDirectionY() {
+        return directionY;
     }
 
     /**
-     * Determines if the projectile is colliding with another entity.
+     * Queues the projectile to be drawn, between its positions after the last two ticks.
      *
-     * @param otherEntity The other entity to check for collision.
-     * @return true if colliding, false otherwise.
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @param queue The queue collecting the frame's draws.
      */
-    public boolean isCollidingWith(Entity otherEntity) {
-        double dx = otherEntity.getX() - this.getX();
-        double dy = otherEntity.getY() - this.getY();
-        double distance = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
+    @Override
+    public void draw(double alpha, RenderQueue queue) {
+        queue.draw(getImagePath(), getDrawX(alpha), getDrawY(alpha), option, RenderQueue.PROJECTILE_LAYER);
+    }
 
-        return distance <= COLLISION_DISTANCE;
+    /**
+     * Updates the position of the projectile based on its direction and speed.
+     */
+    @Override
+    public void update() {
+        savePosition();
+        setX(getX() + directionX * PROJECTILE_SPEED);
+        setY(getY() + directionY * PROJECTILE_SPEED);
     }
 
     /**
@@ -83,21 +114,16 @@ public class Projectile extends Entity {
      * @return true if the projectile is off the screen, false otherwise.
      */
     public boolean isOffScreen() {
-        return getX() < 0 || getX() > Window.getWidth() || getY() < 0 || getY() > Window.getHeight();
+        return getX() < 0 || getX() > ShadowDance.WINDOW_WIDTH || getY() < 0 || getY() > ShadowDance.WINDOW_HEIGHT;
     }
 
     /**
-     * Determines if the projectile is colliding with any enemies from the given list.
+     * Finds the enemy the projectile is colliding with, if any.
      *
-     * @param enemies A list of enemies to check for collisions.
-     * @return true if colliding with any enemy, false otherwise.
+     * @param enemies The grid of enemy positions to check for collisions.
+     * @return the index of the first enemy colliding with the projectile, or -1 if none is.
      */
-    public boolean isCollidingWithEnemies(ArrayList<Enemy> enemies) {
-        for (Enemy enemy : enemies) {
-            if (isCollidingWith(enemy)) {
-                return true;
-            }
-        }
-        return false;
+    public int findCollidingEnemy(SpatialGrid enemies) {
+        return enemies.firstWithin(getX(), getY(), COLLISION_DISTANCE);
     }
 }
@@ -0,0 +1,74 @@
+import bagel.DrawOptions;
+
+import java.util.ArrayList;
+
+/**
+ * Records the batches and draws submitted by a {@link RenderQueue} instead of drawing them, so
+ * that the order of a frame's draws can be checked without a window.
+ */
+public class RecordingRenderBackend implements RenderBackend {
+    /** Each draw in submission order, as the texture and sprite followed by the position. */
+    private final ArrayList<String> draws = new ArrayList<>();
+
+    /** Number of batches started. */
+    private int bindCount = 0;
+
+    /** Texture of the current batch. */
+    private String texture = null;
+
+    /**
+     * Records the start of a batch.
+     *
+     * @param texture the path to the texture's image file.
+     */
+    @Override
+    public void bind(String texture) {
+        this.texture = texture;
+        bindCount++;
+    }
+
+    /**
+     * Records a draw of a sprite from the current batch's texture.
+     *
+     * @param sprite  the path to the sprite's image file.
+     * @param x       the x-coordinate drawn at.
+     * @param y       the y-coordinate drawn at.
+     * @param options the options drawn with, which are not recorded.
+     */
+    @Override
+    public void draw(String sprite, double x, double y, DrawOptions options) {
+        if (sprite.equals(texture)) {
+            draws.add(texture + " " + x + " " + y);
+        } else {
+            draws.add(texture + ":" + sprite + " " + x + " " + y);
+        }
+    }
+
+    /**
+     * Retrieves every draw recorded, in the order submitted.
+     *
+     * @return the draws, each as the texture path, followed by a colon and the sprite path if
+     *         the sprite is drawn from an atlas page, then the x and y coordinates.
+     */
+    public ArrayList<String> getDraws() {
+        return draws;
+    }
+
+    /**
+     * Retrieves the number of batches started, which is the number of texture changes.
+     *
+     * @return the number of batches.
+     */
+    public int getBindCount() {
+        return bindCount;
+    }
+
+    /**
+     * Discards everything recorded.
+     */
+    public void clear() {
+        draws.clear();
+        bindCount = 0;
+        texture = null;
+    }
+}
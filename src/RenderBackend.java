@@ -0,0 +1,25 @@
+import bagel.DrawOptions;
+
+/**
+ * Carries out the draws submitted by a {@link RenderQueue}, one batch of a single texture at a
+ * time. Drawing through a backend lets the queue's ordering be checked without a window.
+ */
+public interface RenderBackend {
+    /**
+     * Starts a batch of draws from the given texture.
+     *
+     * @param texture the path to the texture's image file, which is either a sprite's own image
+     *                or a {@link TextureAtlas} page holding the batch's sprites.
+     */
+    void bind(String texture);
+
+    /**
+     * Draws a sprite from the texture of the current batch centred at the given position.
+     *
+     * @param sprite  the path to the sprite's image file.
+     * @param x       the x-coordinate to draw at.
+     * @param y       the y-coordinate to draw at.
+     * @param options the options to draw with, or null to draw the sprite as it is.
+     */
+    void draw(String sprite, double x, double y, DrawOptions options);
+}
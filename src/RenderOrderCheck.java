@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+
+/**
+ * Checks that a {@link RenderQueue} draws overlapping notes in the order their lanes queue them,
+ * which is the order they were always drawn in, by recording the draws of a frame with a
+ * {@link RecordingRenderBackend} instead of drawing them.
+ * The frame has hold notes close enough to the normal notes and bombs next to them in their
+ * lanes to overlap. It is checked both with every sprite drawn from its own image, so that each
+ * note type has its own texture, and with the sprites packed into the {@link TextureAtlas}.
+ *
+ * Usage: {@code RenderOrderCheck}, exiting with status 1 if the order is not kept.
+ */
+public class RenderOrderCheck {
+    /** Frame the notes are drawn on, by which every note is on screen. */
+    private static final int DRAW_FRAME = 200;
+
+    /**
+     * Main entry point for the check.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        boolean ownImages = check("own images", new RenderQueue());
+        boolean atlas = check("texture atlas", new RenderQueue(TextureAtlas.getDefault()));
+        if (!ownImages || !atlas) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Draws a frame of overlapping notes through a queue and compares the order of the draws
+     * with the order the lanes queued the notes in.
+     *
+     * @param name  the name of the queue's setup, for the report.
+     * @param queue the queue to draw through.
+     * @return true if every note was drawn in the order queued, false otherwise.
+     */
+    private static boolean check(String name, RenderQueue queue) {
+        ArrayList<Lane> lanes = new ArrayList<>();
+        Lane left = new NormalLane("Left", 282);
+        left.addNote(new NormalNote("Left", 1));
+        left.addNote(new HoldNote("Left", 40));
+        left.addNote(new BombNote("Bomb", 70));
+        left.addNote(new HoldNote("Left", 100));
+        left.addNote(new NormalNote("Left", 130));
+        left.addNote(new HoldNote("Left", 170));
+        lanes.add(left);
+        Lane right = new NormalLane("Right", 742);
+        right.addNote(new HoldNote("Right", 1));
+        right.addNote(new NormalNote("Right", 30));
+        right.addNote(new BombNote("Bomb", 60));
+        right.addNote(new HoldNote("Right", 90));
+        lanes.add(right);
+        Lane special = new SpecialLane("Special", 892);
+        special.addNote(new DoubleScoreNote("DoubleScore", 1));
+        special.addNote(new SpeedUpNote("SpeedUp", 50));
+        special.addNote(new SlowDownNote("SlowDown", 100));
+        lanes.add(special);
+
+        GameClock clock = new GameClock();
+        TickInput input = new TickInput();
+        Accuracy accuracy = new Accuracy();
+        while (clock.getCurrFrame() < DRAW_FRAME) {
+            clock.tick();
+            for (Lane lane : lanes) {
+                lane.update(input, accuracy, clock);
+            }
+        }
+
+        ArrayList<String> expected = new ArrayList<>();
+        for (Lane lane : lanes) {
+            for (Note note : lane.getLiveNotes()) {
+                expected.add(note.getImagePath());
+            }
+            lane.drawNotes(1, queue);
+        }
+        RecordingRenderBackend backend = new RecordingRenderBackend();
+        queue.flush(backend);
+
+        ArrayList<String> drawn = new ArrayList<>();
+        for (String draw : backend.getDraws()) {
+            String target = draw.substring(0, draw.indexOf(' '));
+            drawn.add(target.substring(target.indexOf(':') + 1));
+        }
+        boolean kept = drawn.equals(expected);
+        System.out.println(name + ": " + drawn.size() + " draws, " + backend.getBindCount()
+                + " batches, order kept: " + kept);
+        if (!kept) {
+            System.out.println("  queued " + expected);
+            System.out.println("  drawn  " + drawn);
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,220 @@
+import bagel.DrawOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Collects a frame's sprite draws so that they can be submitted together, sorted by layer,
+ * rather than in the order the game happens to visit its objects.
+ * Layers are drawn from lowest to highest, and within a layer draws keep the order they were
+ * queued in, so sprites that overlap, such as a hold note and the next note in its lane, are
+ * stacked as they always were. Consecutive draws of the same texture are submitted as one batch.
+ * Sprites packed into the same page of a {@link TextureAtlas} share its texture, so a layer of
+ * packed sprites is one batch however its note types or entities are interleaved.
+ * Queuing never allocates once the queue has grown to the size of a frame. The draws of the last
+ * frame flushed are kept until the next frame is queued, so that a frame that has not changed,
+ * such as while paused, can be submitted again without being queued.
+ */
+public class RenderQueue {
+    /** Layer of the lane images, drawn first. */
+    public static final int LANE_LAYER = 0;
+
+    /** Layer of the notes, drawn over the lanes. */
+    public static final int NOTE_LAYER = 1;
+
+    /** Layer of the guardian. */
+    public static final int GUARDIAN_LAYER = 2;
+
+    /** Layer of the enemies. */
+    public static final int ENEMY_LAYER = 3;
+
+    /** Layer of the projectiles, drawn last. */
+    public static final int PROJECTILE_LAYER = 4;
+
+    /** Initial capacity of the draw arrays. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Bit position of the layer in a sort key. */
+    private static final int LAYER_SHIFT = 32;
+
+    /** Mask of the draw's index in a sort key. */
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    /** Atlas deciding which texture each sprite is drawn from. */
+    private final TextureAtlas atlas;
+
+    /** Number of the texture each sprite is drawn from, keyed by sprite path. */
+    private final HashMap<String, Integer> textureNumbers = new HashMap<>();
+
+    /** Texture of each number. */
+    private final ArrayList<String> textures = new ArrayList<>();
+
+    /** Sprite of each queued draw. */
+    private String[] sprites = new String[INITIAL_CAPACITY];
+
+    /** Texture number of each queued draw. */
+    private int[] textureOf = new int[INITIAL_CAPACITY];
+
+    /** X-coordinate of each queued draw. */
+    private double[] xs = new double[INITIAL_CAPACITY];
+
+    /** Y-coordinate of each queued draw. */
+    private double[] ys = new double[INITIAL_CAPACITY];
+
+    /** Options of each queued draw, or null for none. */
+    private DrawOptions[] options = new DrawOptions[INITIAL_CAPACITY];
+
+    /** Sort key of each queued draw: its layer, then index. */
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /** Number of queued draws. */
+    private int size = 0;
+
+    /** Number of draws submitted by the last flush, kept to be submitted again. */
+    private int submitted = 0;
+
+    /** Number of batches submitted by the last flush. */
+    private int batchCount = 0;
+
+    /**
+     * Constructs a queue drawing every sprite from its own image.
+     */
+    public RenderQueue() {
+        this(new TextureAtlas());
+    }
+
+    /**
+     * Constructs a queue drawing sprites from the pages of the given atlas where packed.
+     *
+     * @param atlas the atlas of packed sprites.
+     */
+    public RenderQueue(TextureAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    /**
+     * Queues a draw of a sprite centred at the given position.
+     *
+     * @param sprite  the path to the sprite's image file.
+     * @param x       the x-coordinate to draw at.
+     * @param y       the y-coordinate to draw at.
+     * @param layer   the layer to draw in, such as {@link #NOTE_LAYER}.
+     */
+    public void draw(String sprite, double x, double y, int layer) {
+        draw(sprite, x, y, null, layer);
+    }
+
+    /**
+     * Queues a draw of a sprite centred at the given position with the given options.
+     * The options are read when the queue is flushed, so must not change before then.
+     *
+     * @param sprite  the path to the sprite's image file.
+     * @param x       the x-coordinate to draw at.
+     * @param y       the y-coordinate to draw at.
+     * @param options the options to draw with, or null for none.
+     * @param layer   the layer to draw in, such as {@link #NOTE_LAYER}.
+     */
+    public void draw(String sprite, double x, double y, DrawOptions options, int layer) {
+        if (size == 0 && submitted > 0) {
+            Arrays.fill(sprites, 0, submitted, null);
+            Arrays.fill(this.options, 0, submitted, null);
+            submitted = 0;
+        }
+        if (size == keys.length) {
+            grow();
+        }
+        int number = textureNumber(sprite);
+        sprites[size] = sprite;
+        textureOf[size] = number;
+        xs[size] = x;
+        ys[size] = y;
+        this.options[size] = options;
+        keys[size] = ((long) layer << LAYER_SHIFT) | size;
+        size++;
+    }
+
+    /**
+     * Submits every queued draw to a backend, sorted by layer, and empties the queue.
+     *
+     * @param backend the backend to draw with.
+     */
+    public void flush(RenderBackend backend) {
+        Arrays.sort(keys, 0, size);
+        submitted = size;
+        size = 0;
+        resubmit(backend);
+    }
+
+    /**
+     * Submits the draws of the last flush to a backend again, in the same order.
+     * Submits nothing once a draw of the next frame has been queued.
+     *
+     * @param backend the backend to draw with.
+     */
+    public void resubmit(RenderBackend backend) {
+        int bound = -1;
+        batchCount = 0;
+        for (int i = 0; i < submitted; i++) {
+            int index = (int) (keys[i] & INDEX_MASK);
+            if (textureOf[index] != bound) {
+                bound = textureOf[index];
+                backend.bind(textures.get(bound));
+                batchCount++;
+            }
+            backend.draw(sprites[index], xs[index], ys[index], options[index]);
+        }
+    }
+
+    /**
+     * Retrieves the number of draws queued since the last flush.
+     *
+     * @return the number of queued draws.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of batches last submitted, which is the number of times
+     * it bound a texture.
+     *
+     * @return the number of batches.
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Finds the number of the texture a sprite is drawn from, numbering it if it is new.
+     *
+     * @param sprite the path to the sprite's image file.
+     * @return the number of the sprite's texture.
+     */
+    private int textureNumber(String sprite) {
+        Integer number = textureNumbers.get(sprite);
+        if (number == null) {
+            String texture = atlas.getTexture(sprite);
+            number = textures.indexOf(texture);
+            if (number < 0) {
+                number = textures.size();
+                textures.add(texture);
+            }
+            textureNumbers.put(sprite, number);
+        }
+        return number;
+    }
+
+    /**
+     * Doubles the capacity of the draw arrays.
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+        sprites = Arrays.copyOf(sprites, capacity);
+        textureOf = Arrays.copyOf(textureOf, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        options = Arrays.copyOf(options, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+}
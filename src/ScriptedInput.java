@@ -0,0 +1,127 @@
+import bagel.Keys;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Supplies scripted key presses and releases to a headless simulation.
+ * Events are keyed by the frame on which they occur and must be added in frame order.
+ * Each event is timed at its frame's song time, as though the key was pressed exactly on the tick.
+ */
+public class ScriptedInput {
+    /** Initial capacity of the event arrays. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Frames on which scripted events occur, in ascending order. */
+    private int[] frames = new int[INITIAL_CAPACITY];
+
+    /** Keys pressed on each scripted frame. */
+    private TickInput[] inputs = new TickInput[INITIAL_CAPACITY];
+
+    /** Number of scripted frames. */
+    private int size = 0;
+
+    /** Index of the next scripted frame to be consumed. */
+    private int cursor = 0;
+
+    /**
+     * Reads a script from a CSV file of the form {@code frame,key,Press|Release},
+     * where key is the name of a bagel key such as {@code LEFT} or {@code SPACE}.
+     *
+     * @param file the script file to read.
+     * @return the script read from the file.
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    public static ScriptedInput read(String file) throws IOException {
+        ScriptedInput script = new ScriptedInput();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String textRead;
+            int line = 0;
+            while ((textRead = br.readLine()) != null) {
+                line++;
+                if (textRead.isBlank()) {
+                    continue;
+                }
+                String[] splitText = textRead.split(",");
+                try {
+                    int frame = Integer.parseInt(splitText[0].trim());
+                    Keys key = Keys.valueOf(splitText[1].trim());
+                    if (splitText[2].trim().equals("Release")) {
+                        script.release(frame, key);
+                    } else {
+                        script.press(frame, key);
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException(file + ":" + line + ": malformed script entry '" + textRead + "'", e);
+                }
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Schedules a key press.
+     *
+     * @param frame the frame on which the key is pressed.
+     * @param key   the key to press.
+     */
+    public void press(int frame, Keys key) {
+        at(frame).press(key, GameClock.timeOf(frame));
+    }
+
+    /**
+     * Schedules a key release.
+     *
+     * @param frame the frame on which the key is released.
+     * @param key   the key to release.
+     */
+    public void release(int frame, Keys key) {
+        at(frame).release(key, GameClock.timeOf(frame));
+    }
+
+    /**
+     * Fills the given tick input with the events scripted for the given frame.
+     * Frames must be requested in ascending order.
+     *
+     * @param frame the frame being simulated.
+     * @param input the tick input to fill.
+     */
+    public void fill(int frame, TickInput input) {
+        input.clear();
+        while (cursor < size && frames[cursor] < frame) {
+            cursor++;
+        }
+        if (cursor < size && frames[cursor] == frame) {
+            input.copyFrom(inputs[cursor]);
+        }
+    }
+
+    /** Rewinds the script to its first frame. */
+    public void rewind() {
+        cursor = 0;
+    }
+
+    /**
+     * Retrieves the input for the given frame, creating it if needed.
+     *
+     * @param frame the frame to look up.
+     * @return the input scripted for the frame.
+     */
+    private TickInput at(int frame) {
+        if (size > 0 && frames[size - 1] == frame) {
+            return inputs[size - 1];
+        }
+        if (size > 0 && frames[size - 1] > frame) {
+            throw new IllegalArgumentException("Scripted events must be added in frame order: " + frame);
+        }
+        if (size == frames.length) {
+            frames = Arrays.copyOf(frames, size * 2);
+            inputs = Arrays.copyOf(inputs, size * 2);
+        }
+        frames[size] = frame;
+        inputs[size] = new TickInput();
+        return inputs[size++];
+    }
+}
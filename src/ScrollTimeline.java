@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * Records every change of a level's scroll speed, so that how far the notes have scrolled by any
+ * frame can be worked out in closed form rather than by moving each note every frame.
+ * The speed is constant between changes, so the timeline is a list of segments, each starting on
+ * a frame with a speed and the distance scrolled before it. A change made on a frame takes effect
+ * from the next frame, for every lane alike.
+ */
+public class ScrollTimeline {
+    /** Initial capacity of the segment arrays. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** First frame of each segment, in ascending order. */
+    private int[] starts = new int[INITIAL_CAPACITY];
+
+    /** Speed of each segment, in pixels per frame. */
+    private int[] speeds = new int[INITIAL_CAPACITY];
+
+    /** Distance scrolled by the frames before each segment, in pixels. */
+    private long[] distances = new long[INITIAL_CAPACITY];
+
+    /** Number of segments. */
+    private int count = 0;
+
+    /**
+     * Constructs a timeline scrolling at the default speed from the first frame.
+     */
+    public ScrollTimeline() {
+        reset();
+    }
+
+    /**
+     * Records a change of speed made on the given frame, taking effect from the next frame.
+     * Changes must be recorded in order of frame; a later change on the same frame replaces an
+     * earlier one.
+     *
+     * @param frame the frame on which the speed changed.
+     * @param speed the new speed, in pixels per frame.
+     */
+    public void change(int frame, int speed) {
+        int start = frame + 1;
+        int last = count - 1;
+        if (starts[last] == start) {
+            speeds[last] = speed;
+            return;
+        }
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            speeds = Arrays.copyOf(speeds, count * 2);
+            distances = Arrays.copyOf(distances, count * 2);
+        }
+        distances[count] = distanceAt(frame);
+        starts[count] = start;
+        speeds[count] = speed;
+        count++;
+    }
+
+    /**
+     * Works out how far the notes have scrolled by the end of the given frame since the level
+     * began.
+     *
+     * @param frame the frame number.
+     * @return the distance scrolled by frames 1 to the given frame, in pixels.
+     */
+    public long distanceAt(int frame) {
+        int segment = segmentOf(frame);
+        return distances[segment] + (long) (frame - starts[segment] + 1) * speeds[segment];
+    }
+
+    /**
+     * Retrieves the speed the notes scroll at on the given frame.
+     *
+     * @param frame the frame number.
+     * @return the speed in pixels per frame.
+     */
+    public int speedAt(int frame) {
+        return speeds[segmentOf(frame)];
+    }
+
+    /**
+     * Discards the changes made on or after the given frame, for seeking back to it.
+     *
+     * @param frame the frame to keep the changes made before.
+     */
+    public void truncate(int frame) {
+        while (count > 1 && starts[count - 1] > frame) {
+            count--;
+        }
+    }
+
+    /**
+     * Makes this timeline record the same changes as another, for saving or restoring a
+     * level's state. Only the segments in use are copied.
+     *
+     * @param other the timeline to copy.
+     */
+    public void copyFrom(ScrollTimeline other) {
+        if (starts.length < other.count) {
+            starts = new int[other.count];
+            speeds = new int[other.count];
+            distances = new long[other.count];
+        }
+        System.arraycopy(other.starts, 0, starts, 0, other.count);
+        System.arraycopy(other.speeds, 0, speeds, 0, other.count);
+        System.arraycopy(other.distances, 0, distances, 0, other.count);
+        count = other.count;
+    }
+
+    /**
+     * Retrieves the number of segments of constant speed.
+     *
+     * @return the number of speed changes recorded, plus one.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discards every change, going back to the default speed from the first frame.
+     */
+    public void reset() {
+        count = 1;
+        starts[0] = 1;
+        speeds[0] = GameClock.DEFAULT_SPEED;
+        distances[0] = 0;
+    }
+
+    /**
+     * Finds the segment a frame falls in. Frames before the first segment fall in it.
+     * Most lookups are for recent frames, so the last segment is checked first.
+     *
+     * @param frame the frame number.
+     * @return the index of the segment.
+     */
+    private int segmentOf(int frame) {
+        if (frame >= starts[count - 1]) {
+            return count - 1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= frame) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -1,5 +1,9 @@
 import bagel.*;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Represents the main game class for the "Shadow Dance" game.
  * Manages the game loop, input handling, and rendering logic.
@@ -8,33 +12,48 @@ import bagel.*;
  * @author Jeremy Santoso Tanasaleh
  */
 public class ShadowDance extends AbstractGame {
-    /** Current level of the game. */
-    private Level level;
+    /** Level being played, or null while the starting screen is showing. */
+    private Level level = null;
+
+    /** Service playing the music of each level. */
+    private final AudioService audio = new AudioService();
+
+    /** Creates each level, in the order of the number keys that select them. */
+    private final static LevelFactory[] LEVELS = {Level1::new, Level2::new, Level3::new};
+
+    /** Builds levels off the render thread while the starting screen is showing. */
+    private final ExecutorService levelExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Level loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Levels being prepared while the starting screen is showing, or null during play. */
+    private LevelLoader[] loaders = null;
+
+    /** Index of the level selected before it was ready, or -1 if none is. */
+    private int selectedLevel = -1;
 
     /** Constants related to game window and visuals. */
-    private final static int WINDOW_WIDTH = 1024;
-    private final static int WINDOW_HEIGHT = 768;
+    public final static int WINDOW_WIDTH = 1024;
+    public final static int WINDOW_HEIGHT = 768;
     private final static String GAME_TITLE = "SHADOW DANCE";
-    private final Image BACKGROUND_IMAGE = new Image("res/background.png");
-
-    /** Game states and settings. */
-    public static boolean started = false;
-    public static boolean finished = false;
-    public static boolean paused = false;
-    public static int speedChanger = 2;
-    public static int currFrame = 0;
+    public final static String BACKGROUND_FILE = "res/background.png";
+    private final Image BACKGROUND_IMAGE = Assets.getImage(BACKGROUND_FILE);
 
     /** Fonts and instructions to display on starting screen. */
     private final static int INSTRUCTION_SIZE = 24;
     public final static String FONT_FILE = "res/FSO8BITR.TTF";
-    private final Font INSTRUCTION_FONT = new Font(FONT_FILE, INSTRUCTION_SIZE);
-    private final Font TITLE_FONT = new Font(FONT_FILE, TITLE_SIZE);
+    private final Font INSTRUCTION_FONT = Assets.getFont(FONT_FILE, INSTRUCTION_SIZE);
+    private final Font TITLE_FONT = Assets.getFont(FONT_FILE, TITLE_SIZE);
     private final static int TITLE_SIZE = 64;
     private final static int TITLE_X = 220;
     private final static int TITLE_Y = 250;
     private final static String INSTRUCTIONS = "SELECT LEVELS WITH\nNUMBER KEYS\n\n    1       2       3";
     private final static int INS_X_OFFSET = 100;
     private final static int INS_Y_OFFSET = 190;
+    private final static String LOADING_MESSAGE = "LOADING...";
+    private final static int LOADING_Y_OFFSET = 330;
 
     /** Constructor initializes the game window. */
     ShadowDance() {
@@ -60,19 +79,28 @@ public class ShadowDance extends AbstractGame {
     protected void update(Input input) {
 
         if (input.wasPressed(Keys.ESCAPE)){
+            audio.shutdown();
             Window.close();
         }
 
-        BACKGROUND_IMAGE.draw(Window.getWidth()/2.0, Window.getHeight()/2.0);
-        if (!started) {
+        FrameProfiler.begin(FrameProfiler.BACKGROUND_DRAW);
+        // During play the level's static layer covers the background along with its lanes
+        if (level == null || level.isFinished() || !level.drawStaticLayer()) {
+            BACKGROUND_IMAGE.draw(Window.getWidth()/2.0, Window.getHeight()/2.0);
+        }
+        FrameProfiler.end(level);
+        if (level == null) {
             drawStartingScreen(input);
-        } else if (finished) {
+        } else if (level.isFinished()) {
             level.drawEndingScreen();
             if (input.wasPressed(Keys.SPACE)) {
                 level.resetGame();
+                level = null;
+            } else if (input.wasPressed(Keys.ENTER)) {
+                level.retry();
             }
         } else {
-            if (paused) {
+            if (level.isPaused()) {
                 level.updatePausedState(input);
             } else {
                 level.updateGameplay(input);
@@ -82,6 +110,8 @@ public class ShadowDance extends AbstractGame {
 
     /**
      * Draws the starting screen and handles input for level selection.
+     * Every level is prepared in the background while the screen shows, so a level that is
+     * ready starts on the frame it is selected, and one that is not shows a loading message.
      *
      * @param input The current input from the player.
      */
@@ -89,31 +119,60 @@ public class ShadowDance extends AbstractGame {
         TITLE_FONT.drawString(GAME_TITLE, TITLE_X, TITLE_Y);
         INSTRUCTION_FONT.drawString(INSTRUCTIONS, TITLE_X + INS_X_OFFSET, TITLE_Y + INS_Y_OFFSET);
 
+        if (loaders == null) {
+            loaders = new LevelLoader[LEVELS.length];
+            for (int i = 0; i < LEVELS.length; i++) {
+                loaders[i] = new LevelLoader(LEVELS[i], levelExecutor);
+            }
+        }
+        for (LevelLoader loader : loaders) {
+            loader.update();
+        }
+
         if (input.wasPressed(Keys.NUM_1)) {
-            level = new Level1();
+            selectedLevel = 0;
         } else if (input.wasPressed(Keys.NUM_2)) {
-            level = new Level2();
+            selectedLevel = 1;
         } else if (input.wasPressed(Keys.NUM_3)) {
-            level = new Level3();
+            selectedLevel = 2;
         }
-    }
-
-    /** Decreases the speed by 1. */
-    public static void slowDown() {
-        speedChanger--;
-    }
 
-    /** Increases the speed by 1. */
-    public static void speedUp() {
-        speedChanger++;
+        if (selectedLevel != -1) {
+            LevelLoader loader = loaders[selectedLevel];
+            if (loader.isReady() || loader.isFailed()) {
+                startLevel(selectedLevel);
+                selectedLevel = -1;
+            } else {
+                INSTRUCTION_FONT.drawString(LOADING_MESSAGE, TITLE_X + INS_X_OFFSET, TITLE_Y + LOADING_Y_OFFSET);
+            }
+        }
     }
 
     /**
-     * Retrieves the current game frame.
+     * Starts playing a prepared level and stops preparing the others.
      *
-     * @return The current frame of the game.
+     * @param index The index of the level to play.
      */
-    public static int getCurrFrame() {
-        return currFrame;
+    private void startLevel(int index) {
+        Level level;
+        try {
+            level = loaders[index].getLevel();
+        } catch (IOException e) {
+            // Stay on the starting screen so that another level can be selected
+            System.err.println("Cannot load level: " + e.getMessage());
+            loaders[index] = new LevelLoader(LEVELS[index], levelExecutor);
+            return;
+        }
+        for (int i = 0; i < loaders.length; i++) {
+            if (i != index) {
+                loaders[i].cancel();
+            }
+        }
+        loaders = null;
+
+        // Seeded from the clock, and kept in the session's input log for replays
+        level.setSeed(System.nanoTime());
+        level.start(audio);
+        this.level = level;
     }
 }
@@ -1,6 +1,4 @@
-import bagel.Input;
 import bagel.Keys;
-import java.util.ArrayList;
 
 /**
  * Represents a specialized note that, when hit, slows down the game.
@@ -27,19 +25,21 @@ public class SlowDownNote extends SpecialNote {
      *
      * @param input The user input.
      * @param accuracy The accuracy evaluator.
+     * @param clock The clock of the level, whose speed is decreased.
      * @param targetHeight The target y-coordinate for scoring.
      * @param relevantKey The key associated with this note.
-     * @param notes The list of all active notes.
+     * @param lane The lane the note belongs to.
      * @return The score earned from the note.
      */
     @Override
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes) {
+    public int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane) {
         int score = 0;
         if (isActive()) {
-            int effect = accuracy.evaluateEffect(getY(), targetHeight, input.wasPressed(relevantKey), MESSAGE);
+            double offset = getHitOffset(input.getPressTime(relevantKey), clock, getY(), targetHeight);
+            int effect = accuracy.evaluateEffect(offset, getY(), input.wasPressed(relevantKey), MESSAGE);
 
             if (effect == Accuracy.EFFECT_ACTIVATED) {
-                ShadowDance.slowDown();
+                clock.slowDown();
                 score = 15;
             }
 
@@ -0,0 +1,113 @@
+/**
+ * Tracks how far into the song a level is, following the playback positions posted by the
+ * {@link AudioService}. Positions only move in steps of one audio buffer, so between steps the
+ * clock runs on the system timer, and each new position nudges it back towards the music.
+ * Large differences, such as after the audio stalls, are corrected at once.
+ * The clock never runs backwards, since ticks that have run cannot be undone, and it keeps
+ * running on the system timer alone whenever no positions arrive, such as when the track
+ * failed to load or has ended.
+ */
+public class SongClock {
+    /** Number of nanoseconds in a microsecond. */
+    private static final long NANOS_PER_MICRO = 1000;
+
+    /** Difference from the music beyond which the clock jumps straight to it, in nanoseconds. */
+    private static final long SNAP_NANOS = 100_000_000L;
+
+    /** Fraction of the difference from the music corrected at each new playback position. */
+    private static final int CORRECTION_DIVISOR = 8;
+
+    /** Time into the song, in nanoseconds. */
+    private long time = 0;
+
+    /** System time at which the clock was last updated, in nanoseconds. */
+    private long lastUpdate;
+
+    /** Playback position received since the last update, or null if there is none. */
+    private PlaybackPosition position = null;
+
+    /** Whether the song is playing. */
+    private boolean playing = false;
+
+    /**
+     * Starts or resumes the clock.
+     *
+     * @param now the current system time in nanoseconds.
+     */
+    public void resume(long now) {
+        lastUpdate = now;
+        playing = true;
+    }
+
+    /**
+     * Moves the clock to the given song time, forgetting any playback position received for
+     * the time before.
+     *
+     * @param time the song time to move to, in nanoseconds.
+     * @param now  the current system time in nanoseconds.
+     */
+    public void seek(long time, long now) {
+        this.time = time;
+        lastUpdate = now;
+        position = null;
+    }
+
+    /**
+     * Pauses the clock, holding the time it has reached.
+     *
+     * @param now the current system time in nanoseconds.
+     */
+    public void pause(long now) {
+        update(now);
+        playing = false;
+        position = null;
+    }
+
+    /**
+     * Receives a playback position of the song, to be corrected towards at the next update.
+     *
+     * @param position the playback position.
+     */
+    public void onPosition(PlaybackPosition position) {
+        if (playing) {
+            this.position = position;
+        }
+    }
+
+    /**
+     * Advances the clock to the given system time and corrects it towards the playback position.
+     *
+     * @param now the current system time in nanoseconds.
+     * @return the time into the song, in nanoseconds.
+     */
+    public long update(long now) {
+        if (!playing) {
+            return time;
+        }
+        long predicted = time + Math.max(now - lastUpdate, 0);
+        lastUpdate = now;
+
+        if (position != null) {
+            long actual = position.getPosition() * NANOS_PER_MICRO + (now - position.getSampledAt());
+            long error = actual - predicted;
+            if (Math.abs(error) > SNAP_NANOS) {
+                predicted += error;
+            } else {
+                predicted += error / CORRECTION_DIVISOR;
+            }
+            position = null;
+        }
+
+        time = Math.max(time, predicted);
+        return time;
+    }
+
+    /**
+     * Retrieves the time into the song as of the last update.
+     *
+     * @return the time into the song, in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+
+/**
+ * A uniform grid of points, used to find the entities near a position without checking every
+ * entity. Points are added in order and identified by that order, then bucketed into square
+ * cells by {@link #build()}. Points outside the grid are kept in its edge cells, so every query
+ * stays correct and only loses speed for them.
+ * The grid is meant to be cleared and refilled every frame; once its arrays have grown to fit,
+ * rebuilding and querying it allocate nothing.
+ */
+public class SpatialGrid {
+    /** Number of points the grid has room for before growing. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Side length of each cell. */
+    private final double cellSize;
+
+    /** Number of cell columns. */
+    private final int columns;
+
+    /** Number of cell rows. */
+    private final int rows;
+
+    /** X-coordinates of the points, in the order they were added. */
+    private double[] xs = new double[INITIAL_CAPACITY];
+
+    /** Y-coordinates of the points, in the order they were added. */
+    private double[] ys = new double[INITIAL_CAPACITY];
+
+    /** Cell holding each point. */
+    private int[] cells = new int[INITIAL_CAPACITY];
+
+    /** Whether each point has been removed since the grid was built. */
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+
+    /** Points ordered by cell, and by the order they were added within each cell. */
+    private int[] cellPoints = new int[INITIAL_CAPACITY];
+
+    /** Index into cellPoints of the first point of each cell, with one extra entry at the end. */
+    private final int[] cellStarts;
+
+    /** Number of points in the grid. */
+    private int size = 0;
+
+    /**
+     * Constructs an empty grid covering the given area from the origin.
+     *
+     * @param width    the width of the area covered.
+     * @param height   the height of the area covered.
+     * @param cellSize the side length of each cell. Queries are fastest when this is about
+     *                 the largest query radius.
+     */
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStarts = new int[columns * rows + 1];
+    }
+
+    /**
+     * Removes every point from the grid.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a point to the grid. The grid must be built again before it is queried.
+     *
+     * @param x the x-coordinate of the point.
+     * @param y the y-coordinate of the point.
+     * @return the index of the point, which is the number of points added before it.
+     */
+    public int add(double x, double y) {
+        if (size == xs.length) {
+            int capacity = size * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            cellPoints = Arrays.copyOf(cellPoints, capacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        cells[size] = row(y) * columns + column(x);
+        removed[size] = false;
+        return size++;
+    }
+
+    /**
+     * Buckets the points added so far into their cells, ready to be queried.
+     */
+    public void build() {
+        Arrays.fill(cellStarts, 0);
+        for (int i = 0; i < size; i++) {
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        for (int i = 0; i < size; i++) {
+            cellPoints[cellStarts[cells[i]]++] = i;
+        }
+        for (int cell = columns * rows; cell > 0; cell--) {
+            cellStarts[cell] = cellStarts[cell - 1];
+        }
+        cellStarts[0] = 0;
+    }
+
+    /**
+     * Removes a point from the results of later queries, until the grid is cleared.
+     *
+     * @param index the index of the point.
+     */
+    public void remove(int index) {
+        removed[index] = true;
+    }
+
+    /**
+     * Checks if a point has been removed since the grid was built.
+     *
+     * @param index the index of the point.
+     * @return true if the point has been removed, false otherwise.
+     */
+    public boolean isRemoved(int index) {
+        return removed[index];
+    }
+
+    /**
+     * Retrieves the number of points added to the grid, including removed points.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the first point added within a distance of a position.
+     *
+     * @param x      the x-coordinate of the position.
+     * @param y      the y-coordinate of the position.
+     * @param radius the greatest distance from the position, inclusive.
+     * @return the lowest index of a point within the distance, or -1 if there is none.
+     */
+    public int firstWithin(double x, double y, double radius) {
+        int first = -1;
+        double radiusSquared = radius * radius;
+        int lastColumn = column(x + radius);
+        int lastRow = row(y + radius);
+        for (int row = row(y - radius); row <= lastRow; row++) {
+            for (int column = column(x - radius); column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int j = cellStarts[cell]; j < cellStarts[cell + 1]; j++) {
+                    int i = cellPoints[j];
+                    if (first != -1 && i > first) {
+                        break;
+                    }
+                    if (!removed[i] && distanceSquared(i, x, y) <= radiusSquared) {
+                        first = i;
+                        break;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Finds the point closest to a position, searching outwards one ring of cells at a time.
+     *
+     * @param x the x-coordinate of the position.
+     * @param y the y-coordinate of the position.
+     * @return the index of the closest point, the lowest if several are equally close, or -1
+     *         if the grid has no points.
+     */
+    public int nearest(double x, double y) {
+        int nearest = -1;
+        double nearestSquared = Double.MAX_VALUE;
+        int centreColumn = column(x);
+        int centreRow = row(y);
+        boolean inside = x >= 0 && y >= 0 && x < columns * cellSize && y < rows * cellSize;
+        int rings = Math.max(Math.max(centreColumn, columns - 1 - centreColumn),
+                Math.max(centreRow, rows - 1 - centreRow));
+
+        for (int ring = 0; ring <= rings; ring++) {
+            int top = centreRow - ring;
+            int bottom = centreRow + ring;
+            for (int row = Math.max(top, 0); row <= Math.min(bottom, rows - 1); row++) {
+                boolean edgeRow = row == top || row == bottom;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int column = centreColumn - ring; column <= centreColumn + ring; column += step) {
+                    if (column < 0 || column >= columns) {
+                        continue;
+                    }
+                    int cell = row * columns + column;
+                    for (int j = cellStarts[cell]; j < cellStarts[cell + 1]; j++) {
+                        int i = cellPoints[j];
+                        if (removed[i]) {
+                            continue;
+                        }
+                        double distanceSquared = distanceSquared(i, x, y);
+                        if (distanceSquared < nearestSquared
+                                || (distanceSquared == nearestSquared && i < nearest)) {
+                            nearest = i;
+                            nearestSquared = distanceSquared;
+                        }
+                    }
+                }
+            }
+            // Points in later rings are at least this far away from a position inside the grid
+            double reach = ring * cellSize;
+            if (inside && nearest != -1 && nearestSquared < reach * reach) {
+                break;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Computes the squared distance between a point and a position.
+     *
+     * @param index the index of the point.
+     * @param x     the x-coordinate of the position.
+     * @param y     the y-coordinate of the position.
+     * @return the squared distance.
+     */
+    private double distanceSquared(int index, double x, double y) {
+        double dx = xs[index] - x;
+        double dy = ys[index] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Finds the column of cells holding an x-coordinate, clamped to the grid.
+     *
+     * @param x the x-coordinate.
+     * @return the column.
+     */
+    private int column(double x) {
+        return Math.min(Math.max((int) Math.floor(x / cellSize), 0), columns - 1);
+    }
+
+    /**
+     * Finds the row of cells holding a y-coordinate, clamped to the grid.
+     *
+     * @param y the y-coordinate.
+     * @return the row.
+     */
+    private int row(double y) {
+        return Math.min(Math.max((int) Math.floor(y / cellSize), 0), rows - 1);
+    }
+}
@@ -1,5 +1,3 @@
-import bagel.*;
-
 /**
  * Represents a specialized note that provides different behaviors or effects
  * when hit compared to normal notes. This class extends the Note class and serves
@@ -7,8 +5,8 @@ import bagel.*;
  */
 public abstract class SpecialNote extends Note {
 
-    /** The image representing the special note. */
-    private final Image image;
+    /** Path to the image representing the special note. */
+    private final String imagePath;
 
     /** The y-coordinate at which the note should begin to appear. */
     private final static int STARTING_Y = 100;
@@ -23,23 +21,35 @@ public abstract class SpecialNote extends Note {
         super(appearanceFrame);
 
         if (dir.equalsIgnoreCase("DoubleScore")) {
-            image = new Image("res/note2x.png");
+            imagePath = "res/note2x.png";
         } else {
-            image = new Image("res/note" + dir + ".png");
+            imagePath = "res/note" + dir + ".png";
         }
 
         setY(STARTING_Y);
     }
 
     /**
-     * Draws the special note on the screen if it is active.
+     * Retrieves the path to the image representing the note.
+     *
+     * @return the path to the image file.
+     */
+    @Override
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Queues the special note to be drawn if it is active.
      *
-     * @param x The x-coordinate where the note should be drawn.
+     * @param x     The x-coordinate where the note should be drawn.
+     * @param alpha How far the time being drawn is between the previous tick and the latest.
+     * @param queue The queue collecting the frame's draws.
      */
     @Override
-    public void draw(int x) {
+    public void draw(int x, double alpha, RenderQueue queue) {
         if (isActive()) {
-            image.draw(x, getY());
+            queue.draw(imagePath, x, getDrawY(alpha), RenderQueue.NOTE_LAYER);
         }
     }
 }
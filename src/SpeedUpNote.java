@@ -1,6 +1,4 @@
-import bagel.Input;
 import bagel.Keys;
-import java.util.ArrayList;
 
 /**
  * Represents a specialized note that speeds up the game when hit.
@@ -27,18 +25,20 @@ public class SpeedUpNote extends SpecialNote {
      *
      * @param input The game's input object to handle user input.
      * @param accuracy The accuracy object to evaluate the note's hit.
+     * @param clock The clock of the level, whose speed is increased.
      * @param targetHeight The target height for hitting the note.
      * @param relevantKey The key that corresponds to the note.
-     * @param notes The list of all notes in the current game level.
+     * @param lane The lane the note belongs to.
      * @return The score awarded for hitting or missing the note.
      */
     @Override
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey, ArrayList<Note> notes) {
+    public int checkScore(TickInput input, Accuracy accuracy, GameClock clock, int targetHeight, Keys relevantKey, Lane lane) {
         int score = 0;
         if (isActive()) {
-            int effect = accuracy.evaluateEffect(getY(), targetHeight, input.wasPressed(relevantKey), MESSAGE);
+            double offset = getHitOffset(input.getPressTime(relevantKey), clock, getY(), targetHeight);
+            int effect = accuracy.evaluateEffect(offset, getY(), input.wasPressed(relevantKey), MESSAGE);
             if (effect == Accuracy.EFFECT_ACTIVATED) {
-                ShadowDance.speedUp();
+                clock.speedUp();
                 score = 15;
             }
 
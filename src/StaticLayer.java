@@ -0,0 +1,156 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * The parts of a level's picture that never change during a song, the background and the art of
+ * every lane, composited into one image so that they are drawn with a single draw each frame.
+ * bagel cannot draw into an offscreen texture, so the layer is composited with Java 2D while the
+ * level is prepared, off the window's thread, and written to {@link #CACHE_DIRECTORY}. The file
+ * is named after a checksum of the images, their sizes and modification times and the lane
+ * positions, so a level is only composited again when its lanes or their art change.
+ */
+public class StaticLayer {
+    /** Directory the composited layers are written to. */
+    public static final String CACHE_DIRECTORY = "cache";
+
+    /** Path to the composited image. */
+    private final String path;
+
+    /**
+     * Constructs a layer already composited to the given image.
+     *
+     * @param path the path to the composited image.
+     */
+    private StaticLayer(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Composites a background and the art of the given lanes, or finds the image composited
+     * from them before.
+     *
+     * @param background the path to the background image, drawn centred in the window.
+     * @param lanes      the lanes whose art is drawn over the background.
+     * @return the static layer.
+     * @throws IOException if an image cannot be read or the layer cannot be written.
+     */
+    public static StaticLayer compose(String background, ArrayList<Lane> lanes) throws IOException {
+        File backgroundFile = resolve(background);
+        File[] laneFiles = new File[lanes.size()];
+        StringBuilder inputs = new StringBuilder(describe(backgroundFile));
+        for (int i = 0; i < laneFiles.length; i++) {
+            laneFiles[i] = resolve(lanes.get(i).getImagePath());
+            inputs.append(describe(laneFiles[i])).append('@').append(lanes.get(i).getLocation()).append(';');
+        }
+        CRC32 crc = new CRC32();
+        crc.update(inputs.toString().getBytes(StandardCharsets.UTF_8));
+        String path = String.format("%s/static-%08x.png", CACHE_DIRECTORY, crc.getValue());
+        if (new File(path).isFile()) {
+            return new StaticLayer(path);
+        }
+
+        BufferedImage layer = new BufferedImage(ShadowDance.WINDOW_WIDTH, ShadowDance.WINDOW_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = layer.createGraphics();
+        drawCentred(graphics, read(backgroundFile), ShadowDance.WINDOW_WIDTH / 2, ShadowDance.WINDOW_HEIGHT / 2);
+        for (int i = 0; i < laneFiles.length; i++) {
+            drawCentred(graphics, read(laneFiles[i]), lanes.get(i).getLocation(), Lane.HEIGHT);
+        }
+        graphics.dispose();
+
+        File directory = new File(CACHE_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        // Written under a temporary name so that a partly written layer is never picked up
+        File temporary = new File(path + ".tmp");
+        ImageIO.write(layer, "png", temporary);
+        if (!temporary.renameTo(new File(path))) {
+            throw new IOException("Cannot write " + path);
+        }
+        return new StaticLayer(path);
+    }
+
+    /**
+     * Retrieves the path to the composited image, to be loaded and drawn through {@link Assets}.
+     *
+     * @return the image path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Draws the layer over the whole window.
+     */
+    public void draw() {
+        Assets.getImage(path).draw(ShadowDance.WINDOW_WIDTH / 2.0, ShadowDance.WINDOW_HEIGHT / 2.0);
+    }
+
+    /**
+     * Finds an image file, matching its name regardless of case if no file has the exact name,
+     * since images are referred to with extensions in either case.
+     *
+     * @param path the path to the image file.
+     * @return the image file.
+     * @throws IOException if no such file exists.
+     */
+    private static File resolve(String path) throws IOException {
+        File file = new File(path);
+        if (file.isFile()) {
+            return file;
+        }
+        File[] siblings = file.getAbsoluteFile().getParentFile().listFiles();
+        if (siblings != null) {
+            for (File sibling : siblings) {
+                if (sibling.getName().equalsIgnoreCase(file.getName())) {
+                    return sibling;
+                }
+            }
+        }
+        throw new IOException(path + ": no such image");
+    }
+
+    /**
+     * Describes an input image for the layer's checksum.
+     *
+     * @param file the image file.
+     * @return the file's path, size and modification time.
+     */
+    private static String describe(File file) {
+        return file.getPath() + ':' + file.length() + ':' + file.lastModified();
+    }
+
+    /**
+     * Reads an image file.
+     *
+     * @param file the image file.
+     * @return the image.
+     * @throws IOException if the file cannot be read as an image.
+     */
+    private static BufferedImage read(File file) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException(file + ": not a readable image");
+        }
+        return image;
+    }
+
+    /**
+     * Draws an image centred at the given position, as bagel does.
+     *
+     * @param graphics the graphics of the layer.
+     * @param image    the image to draw.
+     * @param x        the x-coordinate of the image's centre.
+     * @param y        the y-coordinate of the image's centre.
+     */
+    private static void drawCentred(Graphics2D graphics, BufferedImage image, int x, int y) {
+        graphics.drawImage(image, x - image.getWidth() / 2, y - image.getHeight() / 2, null);
+    }
+}
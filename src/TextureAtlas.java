@@ -0,0 +1,250 @@
+import bagel.DrawOptions;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Maps sprite images to the regions of the atlas pages they were packed into by
+ * {@link AtlasPacker}, so that sprites on one page can be drawn without changing texture.
+ * The index has one line per sprite: its path, page number, the x, y, width and height of its
+ * region on the page, and the size, modification time and CRC-32 of its image file when packed.
+ * Sprites whose image file has changed since, or that were never packed, have no region and are
+ * drawn from their own image as before.
+ */
+public class TextureAtlas {
+    /** Path to the atlas index. */
+    public static final String INDEX_FILE = "res/atlas.idx";
+
+    /** Number of comma-separated fields on each line of the index. */
+    private static final int INDEX_FIELDS = 9;
+
+    /** Path to the atlas pages, without the page number and extension. */
+    public static final String PAGE_PREFIX = "res/atlas";
+
+    /** Extension of the atlas pages. */
+    public static final String PAGE_EXTENSION = ".png";
+
+    /** Marks a looked up sprite path as not being packed in any page. */
+    private static final Region NONE = new Region(null, 0, 0, 0, 0);
+
+    /** Atlas loaded from {@link #INDEX_FILE}, or null before first use. */
+    private static TextureAtlas defaultAtlas = null;
+
+    /** Region of each sprite as named in the index, keyed by lower-case path. */
+    private final HashMap<String, Region> packed = new HashMap<>();
+
+    /** Region of each sprite path looked up so far, or {@link #NONE} for sprites not packed. */
+    private final HashMap<String, Region> lookups = new HashMap<>();
+
+    /**
+     * The region of an atlas page that holds one sprite.
+     */
+    public static final class Region {
+        /** Path to the page image. */
+        private final String page;
+
+        /** Options drawing just this region of the page. */
+        private final DrawOptions options;
+
+        /** X-coordinate of the region's left edge on the page. */
+        private final int x;
+
+        /** Y-coordinate of the region's top edge on the page. */
+        private final int y;
+
+        /** Width of the region. */
+        private final int width;
+
+        /** Height of the region. */
+        private final int height;
+
+        /**
+         * Constructs a region of a page.
+         *
+         * @param page   the path to the page image.
+         * @param x      the x-coordinate of the region's left edge.
+         * @param y      the y-coordinate of the region's top edge.
+         * @param width  the width of the region.
+         * @param height the height of the region.
+         */
+        private Region(String page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.options = page == null ? null : new DrawOptions().setSection(x, y, width, height);
+        }
+
+        /**
+         * Retrieves the path to the page holding the region.
+         *
+         * @return the page's image path.
+         */
+        public String getPage() {
+            return page;
+        }
+
+        /**
+         * Retrieves options that draw just this region of the page.
+         *
+         * @return the shared options, which must not be changed.
+         */
+        public DrawOptions getOptions() {
+            return options;
+        }
+
+        /**
+         * Restricts the given options to this region of the page.
+         *
+         * @param options the options to restrict.
+         */
+        public void applyTo(DrawOptions options) {
+            options.setSection(x, y, width, height);
+        }
+    }
+
+    /**
+     * Retrieves the atlas described by {@link #INDEX_FILE}, loading it on first use.
+     * If the index is missing or unreadable, the atlas is empty and every sprite is drawn from
+     * its own image.
+     *
+     * @return the shared atlas.
+     */
+    public static synchronized TextureAtlas getDefault() {
+        if (defaultAtlas == null) {
+            try {
+                defaultAtlas = load(INDEX_FILE);
+            } catch (IOException e) {
+                System.err.println("Not using the texture atlas: " + e.getMessage());
+                defaultAtlas = new TextureAtlas();
+            }
+        }
+        return defaultAtlas;
+    }
+
+    /**
+     * Loads an atlas index, leaving out sprites whose image has changed since it was packed.
+     * An image with the size and modification time it had when packed is not read; otherwise
+     * its checksum is compared with the one in the index.
+     *
+     * @param indexFile the path to the index.
+     * @return the atlas, empty if the index does not exist.
+     * @throws IOException if the index cannot be read or is malformed.
+     */
+    public static TextureAtlas load(String indexFile) throws IOException {
+        TextureAtlas atlas = new TextureAtlas();
+        File index = new File(indexFile);
+        if (!index.isFile()) {
+            return atlas;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(index))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split(",");
+                if (fields.length != INDEX_FIELDS) {
+                    throw new IOException(indexFile + ":" + lineNumber + ": expected "
+                            + INDEX_FIELDS + " fields");
+                }
+                try {
+                    if (!isPacked(new File(fields[0]), Long.parseLong(fields[6]),
+                            Long.parseLong(fields[7]), Long.parseLong(fields[8]))) {
+                        continue;
+                    }
+                    String page = pagePath(Integer.parseInt(fields[1]));
+                    atlas.packed.put(fields[0].toLowerCase(Locale.ROOT), new Region(page,
+                            Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                            Integer.parseInt(fields[4]), Integer.parseInt(fields[5])));
+                } catch (NumberFormatException e) {
+                    throw new IOException(indexFile + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Checks whether a sprite's image file is the one that was packed.
+     *
+     * @param file     the sprite's image file.
+     * @param fileSize the size of the file when packed, in bytes.
+     * @param modified the modification time of the file when packed.
+     * @param checksum the CRC-32 of the file when packed.
+     * @return true if the file is unchanged since it was packed, false otherwise.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    private static boolean isPacked(File file, long fileSize, long modified, long checksum)
+            throws IOException {
+        if (!file.isFile() || file.length() != fileSize) {
+            return false;
+        }
+        return file.lastModified() == modified || checksum(file) == checksum;
+    }
+
+    /**
+     * Computes the CRC-32 of a sprite's image file, as stored in the index.
+     *
+     * @param file the sprite's image file.
+     * @return the checksum of the file's bytes.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file.toPath()));
+        return crc.getValue();
+    }
+
+    /**
+     * Builds the path to an atlas page.
+     *
+     * @param page the number of the page.
+     * @return the path to the page image.
+     */
+    public static String pagePath(int page) {
+        return PAGE_PREFIX + page + PAGE_EXTENSION;
+    }
+
+    /**
+     * Finds the region a sprite was packed into. Paths are matched regardless of case, since the
+     * images are referred to with extensions in either case.
+     *
+     * @param sprite the path to the sprite's image file.
+     * @return the sprite's region, or null if it is not packed.
+     */
+    public synchronized Region getRegion(String sprite) {
+        Region region = lookups.get(sprite);
+        if (region == null) {
+            region = packed.getOrDefault(sprite.toLowerCase(Locale.ROOT), NONE);
+            lookups.put(sprite, region);
+        }
+        return region == NONE ? null : region;
+    }
+
+    /**
+     * Finds the texture a sprite is drawn from: its atlas page, or its own image if not packed.
+     *
+     * @param sprite the path to the sprite's image file.
+     * @return the path to the image that must be bound to draw the sprite.
+     */
+    public String getTexture(String sprite) {
+        Region region = getRegion(sprite);
+        return region == null ? sprite : region.getPage();
+    }
+
+    /**
+     * Retrieves the number of sprites packed into the atlas.
+     *
+     * @return the number of sprites with a region.
+     */
+    public int size() {
+        return packed.size();
+    }
+}
@@ -0,0 +1,139 @@
+import bagel.Keys;
+
+/**
+ * Represents the key presses and releases consumed by a single simulation tick.
+ * Decouples the game logic from bagel's Input so that a level can be simulated
+ * without a window, from either live or scripted input.
+ * Each press and release carries the song time at which it happened, so that notes can be
+ * judged by timing rather than by where they were when the tick ran.
+ */
+public class TickInput {
+    /** Keys that the game logic reacts to, in bit order. */
+    static final Keys[] TRACKED_KEYS = {
+            Keys.LEFT, Keys.RIGHT, Keys.UP, Keys.DOWN, Keys.SPACE, Keys.LEFT_SHIFT
+    };
+
+    /** Bit mask of the keys pressed during this tick. */
+    private int pressed = 0;
+
+    /** Bit mask of the keys released during this tick. */
+    private int released = 0;
+
+    /** Song time of the first press of each key during this tick, in nanoseconds. */
+    private final long[] pressTimes = new long[TRACKED_KEYS.length];
+
+    /** Song time of the first release of each key during this tick, in nanoseconds. */
+    private final long[] releaseTimes = new long[TRACKED_KEYS.length];
+
+    /**
+     * Checks if the given key was pressed during this tick.
+     *
+     * @param key the key to check.
+     * @return true if the key was pressed, false otherwise.
+     */
+    public boolean wasPressed(Keys key) {
+        return (pressed & bit(key)) != 0;
+    }
+
+    /**
+     * Checks if the given key was released during this tick.
+     *
+     * @param key the key to check.
+     * @return true if the key was released, false otherwise.
+     */
+    public boolean wasReleased(Keys key) {
+        return (released & bit(key)) != 0;
+    }
+
+    /**
+     * Retrieves when the given key was first pressed during this tick.
+     *
+     * @param key the key to check.
+     * @return the song time of the press in nanoseconds, or 0 if the key was not pressed.
+     */
+    public long getPressTime(Keys key) {
+        return wasPressed(key) ? pressTimes[index(key)] : 0;
+    }
+
+    /**
+     * Retrieves when the given key was first released during this tick.
+     *
+     * @param key the key to check.
+     * @return the song time of the release in nanoseconds, or 0 if the key was not released.
+     */
+    public long getReleaseTime(Keys key) {
+        return wasReleased(key) ? releaseTimes[index(key)] : 0;
+    }
+
+    /**
+     * Records a press of the given key. Only the first press of a key in a tick is kept.
+     *
+     * @param key  the key that was pressed.
+     * @param time the song time of the press, in nanoseconds.
+     */
+    public void press(Keys key, long time) {
+        if (!wasPressed(key) && bit(key) != 0) {
+            pressed |= bit(key);
+            pressTimes[index(key)] = time;
+        }
+    }
+
+    /**
+     * Records a release of the given key. Only the first release of a key in a tick is kept.
+     *
+     * @param key  the key that was released.
+     * @param time the song time of the release, in nanoseconds.
+     */
+    public void release(Keys key, long time) {
+        if (!wasReleased(key) && bit(key) != 0) {
+            released |= bit(key);
+            releaseTimes[index(key)] = time;
+        }
+    }
+
+    /**
+     * Clears all recorded presses and releases.
+     */
+    public void clear() {
+        pressed = 0;
+        released = 0;
+    }
+
+    /**
+     * Replaces the recorded presses and releases with those of another tick input.
+     *
+     * @param other the tick input to copy.
+     */
+    public void copyFrom(TickInput other) {
+        pressed = other.pressed;
+        released = other.released;
+        System.arraycopy(other.pressTimes, 0, pressTimes, 0, pressTimes.length);
+        System.arraycopy(other.releaseTimes, 0, releaseTimes, 0, releaseTimes.length);
+    }
+
+    /**
+     * Maps a key to its bit in the press and release masks.
+     *
+     * @param key the key to map.
+     * @return the key's bit, or 0 if the key is not tracked.
+     */
+    private static int bit(Keys key) {
+        int index = index(key);
+        return index < 0 ? 0 : 1 << index;
+    }
+
+    /**
+     * Maps a key to its position in {@link #TRACKED_KEYS}.
+     *
+     * @param key the key to map.
+     * @return the key's position, or -1 if the key is not tracked.
+     */
+    private static int index(Keys key) {
+        for (int i = 0; i < TRACKED_KEYS.length; i++) {
+            if (TRACKED_KEYS[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
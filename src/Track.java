@@ -1,55 +1,265 @@
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
 
 /**
- * Manages background music tracks. This class extends Thread and can be used to play, pause,
- * or stop music tracks.
+ * Manages a background music track, which can be played, paused, sought or stopped.
+ * The track is streamed rather than loaded whole: a reader thread decodes the file into a
+ * small ring buffer, which is fed to the audio line without ever blocking. Only the file header
+ * is read before playback starts, and memory use does not grow with the length of the track.
+ * Apart from its reader thread, a track is only used from the {@link AudioService} thread.
  */
-public class Track extends Thread {
+public class Track {
+    /** Length of audio held in the ring buffer, in milliseconds. */
+    private static final int RING_MILLIS = 1000;
 
-    /** Stream representing the audio input. */
-    private AudioInputStream stream;
+    /** Length of audio buffered by the audio line, in milliseconds. */
+    private static final int LINE_MILLIS = 100;
 
-    /** The Clip object responsible for playing the audio. */
-    private Clip clip;
+    /** Length of audio passed to the audio line at a time, in milliseconds. */
+    private static final int CHUNK_MILLIS = 20;
+
+    /** Number of milliseconds in a second. */
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    /** Number of microseconds in a second. */
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    /** The audio file of the track. */
+    private final File file;
+
+    /** The format of the track's audio. */
+    private final AudioFormat format;
+
+    /** The line the audio is played through. */
+    private final SourceDataLine line;
+
+    /** Audio decoded from the file but not yet passed to the line. */
+    private AudioRingBuffer ring;
+
+    /** Thread decoding the file into the ring buffer. */
+    private Thread reader;
+
+    /** Audio taken from the ring buffer but not yet accepted by the line. */
+    private final byte[] chunk;
+
+    /** Index of the first byte in the chunk not yet accepted by the line. */
+    private int chunkStart = 0;
+
+    /** Index after the last byte in the chunk. */
+    private int chunkEnd = 0;
+
+    /** Position in the track at which the line's frame count was last taken, in microseconds. */
+    private long basePosition = 0;
+
+    /** Frames the line had played when the base position was set. */
+    private long baseFrames = 0;
+
+    /** Whether the track is playing rather than paused. */
+    private boolean playing = false;
+
+    /** Whether the whole track has been passed to the line. */
+    private boolean ended = false;
 
     /**
-     * Constructs a new Track with the specified audio file.
+     * Opens the specified audio file for playback, paused at the start.
      *
-     * @param file Path to the audio file to be loaded and played.
+     * @param file Path to the audio file to be played.
+     * @throws IOException if the file cannot be read or is not a supported audio file.
+     * @throws LineUnavailableException if no audio line can play the file.
      */
-    public Track(String file) {
+    public Track(String file) throws IOException, LineUnavailableException {
+        this.file = new File(file);
+        try (AudioInputStream stream = openStream()) {
+            this.format = stream.getFormat();
+        }
         try {
-            stream = AudioSystem.getAudioInputStream(new java.io.File(file));
-            clip = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, stream.getFormat()));
-            clip.open(stream);
-        } catch(Exception ex) {
-            ex.printStackTrace();
+            line = (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, format));
+        } catch (IllegalArgumentException ex) {
+            throw new LineUnavailableException("No audio line can play " + format);
         }
+        line.open(format, bytesFor(LINE_MILLIS));
+        chunk = new byte[bytesFor(CHUNK_MILLIS)];
+        startReader(0);
     }
 
     /**
-     * Pauses the currently playing track.
+     * Opens a stream over the audio file.
+     *
+     * @return the stream, at the start of the audio.
+     * @throws IOException if the file cannot be read or is not a supported audio file.
      */
-    public void pause() {
+    private AudioInputStream openStream() throws IOException {
         try {
-            clip.stop();
-        } catch (Exception ex) {
-            ex.printStackTrace();
+            return AudioSystem.getAudioInputStream(file);
+        } catch (UnsupportedAudioFileException ex) {
+            throw new IOException(file + " is not a supported audio file", ex);
         }
     }
 
     /**
-     * Starts or resumes the audio playback. This method is called when the thread is started.
+     * Works out how many bytes hold a length of audio, rounded to whole frames.
+     *
+     * @param millis the length of audio in milliseconds.
+     * @return the number of bytes.
      */
-    @Override
-    public void run() {
-        try {
-            clip.start();
-        } catch (Exception ex) {
-            ex.printStackTrace();
+    private int bytesFor(int millis) {
+        int frames = Math.max(1, (int) (format.getFrameRate() * millis / MILLIS_PER_SECOND));
+        return frames * format.getFrameSize();
+    }
+
+    /**
+     * Starts a reader thread decoding the file into a new ring buffer from the given frame.
+     *
+     * @param startFrame the first frame of audio to decode.
+     */
+    private void startReader(long startFrame) {
+        AudioRingBuffer ring = new AudioRingBuffer(bytesFor(RING_MILLIS));
+        this.ring = ring;
+        reader = new Thread(() -> decode(ring, startFrame), "Track reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Decodes the file into a ring buffer until the end of the track or until the ring is
+     * closed. Runs on the reader thread.
+     *
+     * @param ring       the ring buffer to fill.
+     * @param startFrame the first frame of audio to decode.
+     */
+    private void decode(AudioRingBuffer ring, long startFrame) {
+        byte[] buffer = new byte[chunk.length];
+        try (AudioInputStream stream = openStream()) {
+            long skip = startFrame * format.getFrameSize();
+            while (skip > 0) {
+                long skipped = stream.skip(skip);
+                if (skipped <= 0) {
+                    break;
+                }
+                skip -= skipped;
+            }
+            int count;
+            while (!Thread.currentThread().isInterrupted() && (count = stream.read(buffer, 0, buffer.length)) != -1) {
+                ring.write(buffer, 0, count);
+            }
+        } catch (IOException ex) {
+            if (!Thread.currentThread().isInterrupted()) {
+                // The ring is still finished below, so the song ends early rather than stalling
+                System.err.println("Cannot decode track " + file + ": " + ex.getMessage());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ring.finish();
+        }
+    }
+
+    /**
+     * Stops the reader thread and discards what it has decoded.
+     */
+    private void stopReader() {
+        ring.close();
+        reader.interrupt();
+    }
+
+    /**
+     * Starts or resumes the audio playback.
+     */
+    public void play() {
+        playing = true;
+        line.start();
+    }
+
+    /**
+     * Pauses the audio playback, keeping the audio already buffered by the line.
+     */
+    public void pause() {
+        playing = false;
+        line.stop();
+    }
+
+    /**
+     * Moves playback to the given position in the track, keeping it playing or paused.
+     *
+     * @param position the position to play from, in microseconds.
+     */
+    public void seek(long position) {
+        stopReader();
+        line.stop();
+        line.flush();
+        chunkStart = 0;
+        chunkEnd = 0;
+        ended = false;
+
+        long frame = (long) (Math.max(position, 0) * format.getFrameRate() / MICROS_PER_SECOND);
+        basePosition = (long) (frame * MICROS_PER_SECOND / format.getFrameRate());
+        baseFrames = line.getLongFramePosition();
+        startReader(frame);
+        if (playing) {
+            line.start();
         }
     }
+
+    /**
+     * Passes as much decoded audio to the line as it can accept without blocking.
+     *
+     * @return true if any audio was passed to the line, false otherwise.
+     */
+    public boolean pump() {
+        if (!playing || ended) {
+            return false;
+        }
+        int frameSize = format.getFrameSize();
+        boolean pumped = false;
+        while (true) {
+            if (chunkStart == chunkEnd) {
+                int count = ring.read(chunk, 0, chunk.length);
+                if (count == -1) {
+                    ended = true;
+                }
+                if (count <= 0) {
+                    return pumped;
+                }
+                chunkStart = 0;
+                chunkEnd = count;
+            }
+            int count = Math.min(chunkEnd - chunkStart, line.available() / frameSize * frameSize);
+            if (count == 0) {
+                return pumped;
+            }
+            chunkStart += line.write(chunk, chunkStart, count);
+            pumped = true;
+        }
+    }
+
+    /**
+     * Retrieves how far the track has played.
+     *
+     * @return the playback position in microseconds, or -1 if the track is not playing, such as
+     * when it is paused or has ended.
+     */
+    public long getMicrosecondPosition() {
+        if (!playing || !line.isRunning()) {
+            return -1;
+        }
+        long frames = line.getLongFramePosition() - baseFrames;
+        return basePosition + (long) (frames * MICROS_PER_SECOND / format.getFrameRate());
+    }
+
+    /**
+     * Stops the track for good, releasing the audio line and the reader thread.
+     */
+    public void close() {
+        stopReader();
+        line.stop();
+        line.flush();
+        line.close();
+    }
 }